@@ -0,0 +1,17 @@
+package study.datajpa.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 닫힌(closed) 인터페이스 프로젝션에 붙이면 {@code <인터페이스명>Row} 구현 클래스를 컴파일 타임에 생성한다.
+ * 생성된 클래스는 final 필드와 {@code fromTuple(Object[])} 팩토리를 가지므로
+ * 프록시/Map 조회 없이 JDBC 튜플에서 바로 값을 채운다.
+ * 튜플의 컬럼 순서는 인터페이스의 getter 선언 순서와 같아야 한다.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface MaterializedProjection {
+}
@@ -0,0 +1,257 @@
+package study.datajpa.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@SupportedAnnotationTypes("study.datajpa.processor.MaterializedProjection")
+public class MaterializedProjectionProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "Row";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.INTERFACE) {
+                    error(element, "@MaterializedProjection 은 인터페이스에만 사용할 수 있습니다.");
+                    continue;
+                }
+                TypeElement projection = (TypeElement) element;
+                List<Property> properties = collectProperties(projection);
+                if (properties != null) {
+                    write(projection, properties);
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<Property> collectProperties(TypeElement projection) {
+        List<Property> properties = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(projection.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.DEFAULT) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+                error(method, "프로젝션 메서드는 인자가 없는 getter 여야 합니다: " + name);
+                return null;
+            }
+            if (hasAnnotation(method, "org.springframework.beans.factory.annotation.Value")) {
+                error(method, "@Value 를 사용하는 열린 프로젝션은 지원하지 않습니다: " + name);
+                return null;
+            }
+            String property = propertyName(name);
+            if (property == null) {
+                error(method, "getter 이름 규칙(getXxx/isXxx)을 따라야 합니다: " + name);
+                return null;
+            }
+            properties.add(new Property(method.getReturnType(), name, property));
+        }
+        return properties;
+    }
+
+    private void write(TypeElement projection, List<Property> properties) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(projection);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String className = projection.getSimpleName() + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, projection);
+            try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+                out.println("public final class " + className + " implements " + projection.getQualifiedName() + " {");
+                out.println();
+                for (Property p : properties) {
+                    out.println("    private final " + p.type + " " + p.name + ";");
+                }
+                out.println();
+                writeConstructor(out, className, properties);
+                writeFromTuple(out, className, properties);
+                for (Property p : properties) {
+                    out.println("    @Override");
+                    out.println("    public " + p.type + " " + p.getter + "() {");
+                    out.println("        return " + p.name + ";");
+                    out.println("    }");
+                    out.println();
+                }
+                writeEquals(out, className, properties);
+                writeToString(out, className, properties);
+                out.println("}");
+            }
+        } catch (IOException e) {
+            error(projection, "프로젝션 클래스를 생성하지 못했습니다: " + e.getMessage());
+        }
+    }
+
+    private void writeConstructor(PrintWriter out, String className, List<Property> properties) {
+        StringBuilder params = new StringBuilder();
+        for (Property p : properties) {
+            if (params.length() > 0) {
+                params.append(", ");
+            }
+            params.append(p.type).append(' ').append(p.name);
+        }
+        out.println("    public " + className + "(" + params + ") {");
+        for (Property p : properties) {
+            out.println("        this." + p.name + " = " + p.name + ";");
+        }
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeFromTuple(PrintWriter out, String className, List<Property> properties) {
+        out.println("    public static " + className + " fromTuple(Object[] tuple) {");
+        out.println("        return new " + className + "(");
+        for (int i = 0; i < properties.size(); i++) {
+            String separator = i < properties.size() - 1 ? "," : ");";
+            out.println("                " + readColumn(properties.get(i).type, "tuple[" + i + "]") + separator);
+        }
+        out.println("    }");
+        out.println();
+    }
+
+    private String readColumn(TypeMirror type, String column) {
+        String numeric = numericAccessor(type);
+        if (numeric != null) {
+            String nullValue = type.getKind().isPrimitive() ? "0" : "null";
+            return column + " == null ? " + nullValue + " : ((Number) " + column + ")." + numeric + "()";
+        }
+        if (type.getKind() == TypeKind.BOOLEAN) {
+            return column + " != null && (Boolean) " + column;
+        }
+        if (type.getKind() == TypeKind.CHAR) {
+            return column + " == null ? '\\0' : (Character) " + column;
+        }
+        String erased = processingEnv.getTypeUtils().erasure(type).toString();
+        return "(" + erased + ") " + column;
+    }
+
+    private String numericAccessor(TypeMirror type) {
+        switch (type.toString()) {
+            case "long":
+            case "java.lang.Long":
+                return "longValue";
+            case "int":
+            case "java.lang.Integer":
+                return "intValue";
+            case "short":
+            case "java.lang.Short":
+                return "shortValue";
+            case "byte":
+            case "java.lang.Byte":
+                return "byteValue";
+            case "double":
+            case "java.lang.Double":
+                return "doubleValue";
+            case "float":
+            case "java.lang.Float":
+                return "floatValue";
+            default:
+                return null;
+        }
+    }
+
+    private void writeEquals(PrintWriter out, String className, List<Property> properties) {
+        out.println("    @Override");
+        out.println("    public boolean equals(Object o) {");
+        out.println("        if (this == o) return true;");
+        out.println("        if (!(o instanceof " + className + ")) return false;");
+        out.println("        " + className + " that = (" + className + ") o;");
+        StringBuilder equals = new StringBuilder("true");
+        StringBuilder hash = new StringBuilder();
+        for (Property p : properties) {
+            if (p.type.getKind().isPrimitive()) {
+                equals.append("\n                && ").append(p.name).append(" == that.").append(p.name);
+            } else {
+                equals.append("\n                && java.util.Objects.equals(").append(p.name).append(", that.").append(p.name).append(")");
+            }
+            if (hash.length() > 0) {
+                hash.append(", ");
+            }
+            hash.append(p.name);
+        }
+        out.println("        return " + equals + ";");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public int hashCode() {");
+        out.println("        return java.util.Objects.hash(" + hash + ");");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeToString(PrintWriter out, String className, List<Property> properties) {
+        StringBuilder fields = new StringBuilder();
+        for (Property p : properties) {
+            fields.append(fields.length() == 0 ? "\"" : " + \", ")
+                    .append(p.name).append("=\" + ").append(p.name);
+        }
+        out.println("    @Override");
+        out.println("    public String toString() {");
+        out.println("        return \"" + className + "(\" + " + (fields.length() == 0 ? "\"\"" : fields.toString()) + " + \")\";");
+        out.println("    }");
+    }
+
+    private boolean hasAnnotation(Element element, String annotationName) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(annotationName));
+    }
+
+    private String propertyName(String getter) {
+        String stripped;
+        if (getter.startsWith("get") && getter.length() > 3) {
+            stripped = getter.substring(3);
+        } else if (getter.startsWith("is") && getter.length() > 2) {
+            stripped = getter.substring(2);
+        } else {
+            return null;
+        }
+        return Character.toLowerCase(stripped.charAt(0)) + stripped.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class Property {
+        private final TypeMirror type;
+        private final String getter;
+        private final String name;
+
+        Property(TypeMirror type, String getter, String name) {
+            this.type = type;
+            this.getter = getter;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트. 메모리 H2 를 쓰고 SQL 로그는 끈다.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .properties(
+                        "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.cache;
+
+import org.openjdk.jmh.annotations.*;
+import study.datajpa.dto.MemberSnapshot;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 캐시 히트 경로 비용. 모든 키가 캐시에 들어 있는 상태에서 임의의 id 를 읽는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberNearCacheBenchmark {
+
+    private static final int ENTRIES = 10_000;
+
+    private MemberNearCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new MemberNearCache(ENTRIES * 2);
+        for (long id = 1; id <= ENTRIES; id++) {
+            cache.get(id, key -> new MemberSnapshot(key, "member" + key, 20, 1L, null));
+        }
+    }
+
+    @Benchmark
+    public MemberSnapshot hit() {
+        return cache.getIfPresent(ThreadLocalRandom.current().nextLong(1, ENTRIES + 1));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MemberSnapshot hitContended() {
+        return cache.getIfPresent(ThreadLocalRandom.current().nextLong(1, ENTRIES + 1));
+    }
+}
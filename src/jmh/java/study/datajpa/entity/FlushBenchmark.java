@@ -0,0 +1,73 @@
+package study.datajpa.entity;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.BenchmarkContext;
+import study.datajpa.dataset.DatasetGenerator;
+import study.datajpa.dataset.DatasetSpec;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트에 회원 N 명이 있을 때 flush 한 번의 비용. 1% 만 수정한다.
+ * 바이트코드 향상이 있으면 바뀐 엔티티만 확인하고, 없으면 모든 엔티티를 스냅샷과 필드별로 비교한다.
+ * ./gradlew jmh 와 ./gradlew clean jmh -PdisableEnhancement 결과를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class FlushBenchmark {
+
+    private static final int DIRTY_EVERY = 100;
+
+    @Param({"10000", "100000"})
+    int managedMembers;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("flush");
+        emf = context.getBean(EntityManagerFactory.class);
+        new DatasetGenerator(context.getBean(DataSource.class)).generate(DatasetSpec.builder()
+                .teams(100)
+                .members(managedMembers)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        for (int i = 0; i < members.size(); i += DIRTY_EVERY) {
+            Member member = members.get(i);
+            member.setAge(member.getAge() + 1);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public EntityManager flush() {
+        em.flush();
+        return em;
+    }
+}
@@ -0,0 +1,86 @@
+package study.datajpa.entity;
+
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.BenchmarkContext;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 10k 명을 기존 회원이 있는 한 팀에 배정하는 비용.
+ * queuedAdd: Member.changeTeam (members 컬렉션을 초기화하지 않음)
+ * initializedAdd: 컬렉션을 먼저 초기화한 뒤 추가 (기존 동작과 같은 비용)
+ * 각 호출은 롤백되므로 팀 크기는 매번 같다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TeamAssignmentBenchmark {
+
+    private static final int ASSIGN_COUNT = 10_000;
+
+    @Param({"10000", "100000"})
+    int existingMembers;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager em;
+    private Long teamId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("teamAssignment");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        em = context.getBean(EntityManager.class);
+        teamId = transactionTemplate.execute(status -> {
+            Team team = new Team("bench");
+            em.persist(team);
+            for (int i = 0; i < existingMembers; i++) {
+                em.persist(Member.createMember("existing" + i, i % 100, team));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    team = em.find(Team.class, team.getId());
+                }
+            }
+            return team.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int queuedAdd() {
+        return assign(false);
+    }
+
+    @Benchmark
+    public int initializedAdd() {
+        return assign(true);
+    }
+
+    private int assign(boolean initialize) {
+        return transactionTemplate.execute(status -> {
+            Team team = em.find(Team.class, teamId);
+            if (initialize) {
+                Hibernate.initialize(team.getMembers());
+            }
+            for (int i = 0; i < ASSIGN_COUNT; i++) {
+                Member member = Member.createMember("assigned" + i, 20, null);
+                em.persist(member);
+                member.changeTeam(team);
+            }
+            em.flush();
+            status.setRollbackOnly();
+            return ASSIGN_COUNT;
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 네이티브 쿼리 결과 한 페이지를 프로젝션으로 만들고 JSON 으로 직렬화하는 비용 비교.
+ * proxy: Spring Data 가 Tuple 을 Map 으로 감싸 만드는 프록시 프로젝션
+ * row: {@link MemberProjectionRow} 생성 클래스
+ * ./gradlew jmh 로 실행하며 gc 프로파일러로 할당량(gc.alloc.rate.norm)도 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionMaterializationBenchmark {
+
+    private static final String[] ALIASES = {"id", "username", "teamName"};
+
+    @Param({"100", "1000"})
+    int pageSize;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Object[]> tuples;
+
+    @Setup
+    public void setUp() {
+        tuples = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            tuples.add(new Object[]{(long) i, "member" + i, "team" + (i % 10)});
+        }
+    }
+
+    @Benchmark
+    public byte[] proxy() throws JsonProcessingException {
+        List<MemberProjection> page = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            Map<String, Object> source = new HashMap<>();
+            for (int i = 0; i < ALIASES.length; i++) {
+                source.put(ALIASES[i], tuple[i]);
+            }
+            page.add(projectionFactory.createProjection(MemberProjection.class, source));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] row() throws JsonProcessingException {
+        List<MemberProjection> page = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            page.add(MemberProjectionRow.fromTuple(tuple));
+        }
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
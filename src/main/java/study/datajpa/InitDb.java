@@ -1,34 +1,53 @@
 package study.datajpa;
 
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.datajpa.entity.Member;
+import study.datajpa.dataset.DatasetGenerator;
+import study.datajpa.dataset.DatasetSpec;
 
-import javax.persistence.EntityManager;
+import javax.sql.DataSource;
 
+/**
+ * dataset.enabled=true 면 기동할 때 합성 데이터를 넣는다. 싱글톤 초기화 직후, 이름 색인 적재(UsernameIndexLoader)와
+ * 웹 서버 시작보다 먼저 실행된다.
+ */
 @Component
 @RequiredArgsConstructor
-public class InitDb {
+@ConditionalOnProperty(prefix = "dataset", name = "enabled", havingValue = "true")
+public class InitDb implements SmartInitializingSingleton {
 
-    private final InitService initService;
+    private final DataSource dataSource;
 
-//    @PostConstruct
-    public void init() {
-        initService.dbInit1();
-    }
-
-    @Component
-    @Transactional
-    @RequiredArgsConstructor
-    static class InitService {
-        private final EntityManager em;
+    @Value("${dataset.teams:1000}")
+    private int teams;
+    @Value("${dataset.members:1000000}")
+    private long members;
+    @Value("${dataset.zipf-exponent:1.1}")
+    private double zipfExponent;
+    @Value("${dataset.seed:42}")
+    private long seed;
+    @Value("${dataset.producers:4}")
+    private int producers;
+    @Value("${dataset.batch-size:5000}")
+    private int batchSize;
 
-        public void dbInit1() {
-            for (int i = 0; i < 100; i++) {
-                Member member = Member.createMember("TestDATA_"+ i, 10 + i, null);
-                em.persist(member);
-            }
-        }
+    @Override
+    public void afterSingletonsInstantiated() {
+        //배치 INSERT 마다 SQL 로그가 남지 않도록 p6spy 를 거치지 않는다.
+        DataSource target = dataSource instanceof DecoratedDataSource
+                ? ((DecoratedDataSource) dataSource).getRealDataSource()
+                : dataSource;
+        new DatasetGenerator(target).generate(DatasetSpec.builder()
+                .teams(teams)
+                .members(members)
+                .zipfExponent(zipfExponent)
+                .seed(seed)
+                .producers(producers)
+                .batchSize(batchSize)
+                .build());
     }
 }
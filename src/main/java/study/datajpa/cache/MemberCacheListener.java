@@ -0,0 +1,21 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+@Component
+@RequiredArgsConstructor
+public class MemberCacheListener {
+
+    private final MemberNearCache memberNearCache;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        memberNearCache.invalidateOnCommit(member.getId());
+    }
+}
@@ -0,0 +1,237 @@
+package study.datajpa.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.support.LongHashMap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+import static study.datajpa.support.TransactionCallbacks.afterCommit;
+
+/**
+ * 회원 id 로 찾는 불변 사본의 read-through 캐시.
+ *
+ * <ul>
+ *     <li>세그먼트마다 long 키 맵과 CLOCK(second chance) 링을 둔다. 히트는 읽기 락 안에서 참조 비트만 세운다.</li>
+ *     <li>로딩 중에 같은 세그먼트가 무효화되면 읽어 온 값을 넣지 않는다.</li>
+ *     <li>없는 회원은 캐시하지 않는다.</li>
+ *     <li>엔티티 리스너와 벌크 수정이 무효화한다. JDBC/벌크 쿼리로 회원을 바꾸는 코드는 직접 무효화해야 한다.</li>
+ * </ul>
+ */
+@Component
+public class MemberNearCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MemberNearCache(@Value("${member-cache.max-entries:10000}") int maxEntries) {
+        if (maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("member-cache.max-entries 는 " + SEGMENTS + " 이상이어야 합니다: " + maxEntries);
+        }
+        int segmentCapacity = (maxEntries + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    public MemberSnapshot get(long id, LongFunction<MemberSnapshot> loader) {
+        Segment segment = segmentFor(id);
+        MemberSnapshot cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long epoch = segment.epoch;
+        MemberSnapshot loaded = loader.apply(id);
+        if (loaded != null) {
+            segment.putIfEpoch(id, loaded, epoch, evictions);
+        }
+        return loaded;
+    }
+
+    public MemberSnapshot getIfPresent(long id) {
+        return segmentFor(id).get(id);
+    }
+
+    public void invalidate(long id) {
+        segmentFor(id).invalidate(id);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * 지금 지우고 커밋 뒤에 한 번 더 지운다. 커밋 전에 다른 요청이 예전 값을 다시 읽어 올 수 있다.
+     */
+    public void invalidateOnCommit(long id) {
+        invalidate(id);
+        afterCommit(() -> invalidate(id));
+    }
+
+    public void invalidateAllOnCommit() {
+        invalidateAll();
+        afterCommit(this::invalidateAll);
+    }
+
+    public Stats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment segmentFor(long id) {
+        //세그먼트 안의 맵과 다른 비트를 쓰도록 상위 비트로 고른다.
+        long h = id * 0xC2B2AE3D27D4EB4FL;
+        return segments[(int) (h >>> 60)];
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stats {
+        private final long size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+    }
+
+    private static final class Node {
+        final long id;
+        final MemberSnapshot value;
+        final int slot;
+        volatile boolean referenced;
+
+        Node(long id, MemberSnapshot value, int slot) {
+            this.id = id;
+            this.value = value;
+            this.slot = slot;
+        }
+    }
+
+    private static final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongHashMap<Node> nodes;
+        private final Node[] ring;
+        private int hand;
+        private int used;
+        private volatile long epoch;
+
+        Segment(int capacity) {
+            this.nodes = new LongHashMap<>(capacity);
+            this.ring = new Node[capacity];
+        }
+
+        MemberSnapshot get(long id) {
+            lock.readLock().lock();
+            try {
+                Node node = nodes.get(id);
+                if (node == null) {
+                    return null;
+                }
+                node.referenced = true;
+                return node.value;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void putIfEpoch(long id, MemberSnapshot value, long expectedEpoch, LongAdder evictions) {
+            lock.writeLock().lock();
+            try {
+                if (epoch != expectedEpoch) {
+                    return;
+                }
+                Node previous = nodes.get(id);
+                if (previous != null) {
+                    ring[previous.slot] = new Node(id, value, previous.slot);
+                    nodes.put(id, ring[previous.slot]);
+                    return;
+                }
+                int slot = used < ring.length ? findFreeSlot() : evict(evictions);
+                Node node = new Node(id, value, slot);
+                ring[slot] = node;
+                nodes.put(id, node);
+                used++;
+                //방금 넣은 항목이 바로 다음 희생자가 되지 않도록 바늘을 넘긴다.
+                hand = (slot + 1) % ring.length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void invalidate(long id) {
+            lock.writeLock().lock();
+            try {
+                epoch++;
+                Node node = nodes.remove(id);
+                if (node != null) {
+                    ring[node.slot] = null;
+                    used--;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                epoch++;
+                nodes.clear();
+                Arrays.fill(ring, null);
+                used = 0;
+                hand = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return used;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int findFreeSlot() {
+            while (ring[hand] != null) {
+                hand = (hand + 1) % ring.length;
+            }
+            return hand;
+        }
+
+        //참조 비트가 선 항목은 비트만 내리고 한 번 더 기회를 준다.
+        private int evict(LongAdder evictions) {
+            for (;;) {
+                Node node = ring[hand];
+                if (node.referenced) {
+                    node.referenced = false;
+                    hand = (hand + 1) % ring.length;
+                    continue;
+                }
+                nodes.remove(node.id);
+                ring[hand] = null;
+                used--;
+                evictions.increment();
+                return hand;
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package study.datajpa.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 지연 시간 기반 AIMD 동시 실행 제한.
+ * <ul>
+ *     <li>응답이 targetLatency 안에 끝났고 제한의 절반 이상을 쓰고 있었으면 제한을 1 올린다.</li>
+ *     <li>targetLatency 를 넘었거나 커넥션을 얻지 못했으면 제한에 BACKOFF_RATIO 를 곱한다.</li>
+ *     <li>제한이 다 찼으면 maxQueue 명까지 maxWait 동안 기다리게 하고, 그 밖에는 바로 거절한다.</li>
+ * </ul>
+ */
+public class AdaptiveLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long targetLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long rejected;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, int maxQueue, long targetLatency, TimeUnit unit) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("0 < minLimit <= initialLimit <= maxLimit 이어야 합니다: "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.targetLatencyNanos = unit.toNanos(targetLatency);
+    }
+
+    /**
+     * 지연 시간이나 실패로 바뀌지 않는 고정 제한. 대기열과 메트릭은 같은 방식으로 쓴다.
+     */
+    public static AdaptiveLimit fixed(int limit, int maxQueue) {
+        return new AdaptiveLimit(limit, limit, limit, maxQueue, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return 들어갈 수 있으면 true. 대기열이 가득 찼거나 maxWaitNanos 안에 자리가 나지 않으면 false
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueue || maxWaitNanos <= 0) {
+                rejected++;
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * tryAcquire 가 true 를 돌려준 요청이 끝나면 반드시 한 번 부른다.
+     * @param dropped 커넥션을 얻지 못하는 등 과부하로 실패했으면 true
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (dropped || latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * tryAcquire 로 얻은 자리를 요청을 처리하지 않고 돌려준다. 지연 시간을 모르므로 제한은 바꾸지 않는다.
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+}
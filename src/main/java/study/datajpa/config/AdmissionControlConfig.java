@@ -0,0 +1,66 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 제한(admission.global-limit)은 기본값이 커넥션 풀 크기라서, 핸들러가 몇 개든 동시에 커넥션을 찾는 요청이
+ * 풀보다 많아져 connection-timeout 까지 기다리다 한꺼번에 실패하는 일을 막는다. 풀 크기는 지연 시간과 상관없으므로
+ * 전체 제한은 고정이고, 느린 핸들러는 자기 제한만 줄인다.
+ * 핸들러별 제한은 그 안에서 한 핸들러가 자리를 다 차지하지 못하게 하며, 최대값은 전체 제한을 넘지 않는다.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<AdmissionControlInterceptor> admissionControlInterceptor;
+
+    @Value("${admission.global-limit:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int globalLimit;
+
+    @Value("${admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${admission.max-limit:80}")
+    private int maxLimit;
+
+    @Value("${admission.max-queue:20}")
+    private int maxQueue;
+
+    @Value("${admission.max-wait-ms:50}")
+    private long maxWaitMillis;
+
+    @Value("${admission.target-latency-ms:200}")
+    private long targetLatencyMillis;
+
+    @Value("${admission.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor(ObjectProvider<MeterRegistry> registry) {
+        int handlerMax = Math.min(maxLimit, globalLimit);
+        int handlerInitial = Math.min(initialLimit, handlerMax);
+        int handlerMin = Math.min(minLimit, handlerInitial);
+        return new AdmissionControlInterceptor(AdaptiveLimit.fixed(globalLimit, maxQueue),
+                () -> new AdaptiveLimit(handlerInitial, handlerMin, handlerMax, maxQueue, targetLatencyMillis, TimeUnit.MILLISECONDS),
+                TimeUnit.MILLISECONDS.toNanos(maxWaitMillis), retryAfterSeconds, registry::getObject);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptorRegistry) {
+        interceptorRegistry.addInterceptor(admissionControlInterceptor.getObject());
+    }
+}
@@ -0,0 +1,146 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link AdmissionControlled} 핸들러 메서드마다 {@link AdaptiveLimit} 를 두고, 그 위에 모든 핸들러가 함께 쓰는
+ * 고정 크기 전체 제한을 하나 둔다. 두 제한 모두에서 자리를 얻은 요청만 핸들러로 넘기고, 거절한 요청은 503 과 Retry-After 로
+ * 바로 돌려보낸다. 전체 제한은 커넥션 풀 크기를 넘지 않으므로 핸들러가 늘어도 동시에 커넥션을 찾는 요청 수는 풀 안에 머문다.
+ * admission.limit, admission.inflight, admission.queued, admission.rejected 메트릭을 endpoint 태그로 남긴다
+ * (전체 제한은 endpoint=global).
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    static final String GLOBAL = "global";
+
+    private static final String ADMISSION = AdmissionControlInterceptor.class.getName() + ".ADMISSION";
+    private static final byte[] REJECTED_BODY = "{\"message\":\"요청이 많아 잠시 후 다시 시도해 주세요.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveLimit globalLimit;
+    private final Supplier<AdaptiveLimit> limitFactory;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+    private final Supplier<MeterRegistry> registry;
+    //같은 이름의 오버로드가 한 제한을 나눠 쓰지 않도록 메서드 자체를 키로 쓴다.
+    private final Map<Method, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private volatile boolean globalMetersRegistered;
+
+    public AdmissionControlInterceptor(AdaptiveLimit globalLimit, Supplier<AdaptiveLimit> limitFactory, long maxWaitNanos,
+                                       long retryAfterSeconds, Supplier<MeterRegistry> registry) {
+        this.globalLimit = globalLimit;
+        this.limitFactory = limitFactory;
+        this.maxWaitNanos = maxWaitNanos;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || !isControlled((HandlerMethod) handler)) {
+            return true;
+        }
+        registerGlobalMeters();
+        AdaptiveLimit limit = limits.computeIfAbsent(((HandlerMethod) handler).getMethod(), this::createLimit);
+        if (limit.tryAcquire(maxWaitNanos)) {
+            if (globalLimit.tryAcquire(maxWaitNanos)) {
+                request.setAttribute(ADMISSION, new Admission(limit, System.nanoTime()));
+                return true;
+            }
+            limit.cancel();
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(REJECTED_BODY);
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Admission admission = (Admission) request.getAttribute(ADMISSION);
+        if (admission != null) {
+            request.removeAttribute(ADMISSION);
+            long latencyNanos = System.nanoTime() - admission.startNanos;
+            boolean dropped = isConnectionTimeout(ex);
+            admission.limit.release(latencyNanos, dropped);
+            globalLimit.release(latencyNanos, dropped);
+        }
+    }
+
+    private static boolean isControlled(HandlerMethod handlerMethod) {
+        return handlerMethod.hasMethodAnnotation(AdmissionControlled.class)
+                || AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), AdmissionControlled.class);
+    }
+
+    //커넥션 풀에서 connection-timeout 안에 커넥션을 얻지 못한 경우만 과부하로 본다.
+    private static boolean isConnectionTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //예: MemberController.findMember(Long,boolean,WebRequest)
+    static String endpointName(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private void registerGlobalMeters() {
+        if (!globalMetersRegistered) {
+            synchronized (this) {
+                if (!globalMetersRegistered) {
+                    registerMeters(GLOBAL, globalLimit);
+                    globalMetersRegistered = true;
+                }
+            }
+        }
+    }
+
+    private AdaptiveLimit createLimit(Method method) {
+        AdaptiveLimit limit = limitFactory.get();
+        registerMeters(endpointName(method), limit);
+        return limit;
+    }
+
+    private void registerMeters(String endpoint, AdaptiveLimit limit) {
+        MeterRegistry meterRegistry = registry.get();
+        Gauge.builder("admission.limit", limit, AdaptiveLimit::getLimit).tag("endpoint", endpoint).register(meterRegistry);
+        Gauge.builder("admission.inflight", limit, AdaptiveLimit::getInFlight).tag("endpoint", endpoint).register(meterRegistry);
+        Gauge.builder("admission.queued", limit, AdaptiveLimit::getQueued).tag("endpoint", endpoint).register(meterRegistry);
+        FunctionCounter.builder("admission.rejected", limit, AdaptiveLimit::getRejected).tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    private static final class Admission {
+        private final AdaptiveLimit limit;
+        private final long startNanos;
+
+        private Admission(AdaptiveLimit limit, long startNanos) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+    }
+}
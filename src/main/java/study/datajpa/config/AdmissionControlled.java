@@ -0,0 +1,17 @@
+package study.datajpa.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * DB 를 쓰는 핸들러에 붙인다. 핸들러 메서드마다 동시 실행 수를 {@link AdaptiveLimit} 로 제한하고,
+ * 넘치는 요청은 커넥션 풀에서 기다리게 하지 않고 바로 503 으로 돌려보낸다. 클래스에 붙이면 모든 핸들러에 적용된다.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControlled {
+}
@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 커넥션 점유 시간을 jdbc.connection.hold 타이머로 남긴다. OSIV 를 켜면 응답 렌더링이 끝날 때까지
+ * 커넥션을 잡고 있으므로 spring.jpa.open-in-view 값을 바꿔 가며 차이를 볼 수 있다.
+ */
+@Component
+public class ConnectionHoldTimeFilter extends OncePerRequestFilter {
+
+    private final Timer holdTime;
+    private final DistributionSummary connections;
+
+    public ConnectionHoldTimeFilter(MeterRegistry registry) {
+        this.holdTime = Timer.builder("jdbc.connection.hold")
+                .description("요청 하나가 커넥션을 점유한 시간 합")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.connections = DistributionSummary.builder("jdbc.connection.acquired")
+                .description("요청 하나가 얻은 커넥션 수")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ConnectionHoldTimeListener.Usage usage = ConnectionHoldTimeListener.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConnectionHoldTimeListener.end();
+            if (usage.getConnections() > 0) {
+                holdTime.record(usage.getHoldNanos(), TimeUnit.NANOSECONDS);
+                connections.record(usage.getConnections());
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.config;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * 커넥션을 얻은 시점부터 반납할 때까지의 시간을 현재 스레드(요청) 단위로 누적한다.
+ * p6spy 가 JdbcEventListener 빈을 자동으로 등록한다.
+ */
+@Component
+public class ConnectionHoldTimeListener extends JdbcEventListener {
+
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    public static Usage begin() {
+        Usage usage = new Usage();
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        Usage usage = CURRENT.get();
+        if (usage != null && e == null) {
+            usage.acquired(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        Usage usage = CURRENT.get();
+        if (usage != null) {
+            usage.released(System.nanoTime());
+        }
+    }
+
+    public static class Usage {
+        private int connections;
+        private int open;
+        private long openedAt;
+        private long holdNanos;
+
+        private void acquired(long now) {
+            connections++;
+            if (open++ == 0) {
+                openedAt = now;
+            }
+        }
+
+        private void released(long now) {
+            if (open > 0 && --open == 0) {
+                holdNanos += now - openedAt;
+            }
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public long getHoldNanos() {
+            return holdNanos;
+        }
+    }
+}
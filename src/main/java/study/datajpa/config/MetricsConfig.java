@@ -0,0 +1,64 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import study.datajpa.cache.MemberNearCache;
+import study.datajpa.service.MemberAgeWriteBuffer;
+
+/**
+ * 리파지토리 결과 수, 회원 캐시, 나이 쓰기 버퍼 메트릭. Hibernate Statistics 는 hibernate-micrometer 가 있으면
+ * 스프링 부트가 hibernate.* 메트릭으로 묶어 준다(hibernate.generate_statistics=true 필요).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor repositoryResultSizeBeanPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(new RepositoryResultSizeInterceptor(
+                                            registry::getObject, information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder memberNearCacheMetrics(MemberNearCache memberNearCache) {
+        return registry -> {
+            Gauge.builder("member.cache.size", memberNearCache, c -> c.getStats().getSize()).register(registry);
+            FunctionCounter.builder("member.cache.requests", memberNearCache, c -> c.getStats().getHits())
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("member.cache.requests", memberNearCache, c -> c.getStats().getMisses())
+                    .tag("result", "miss").register(registry);
+            FunctionCounter.builder("member.cache.evictions", memberNearCache, c -> c.getStats().getEvictions())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder memberAgeWriteBufferMetrics(MemberAgeWriteBuffer memberAgeWriteBuffer) {
+        return registry -> {
+            Gauge.builder("member.age.buffer.pending", memberAgeWriteBuffer, b -> b.getStats().getPending()).register(registry);
+            FunctionCounter.builder("member.age.buffer.flushes", memberAgeWriteBuffer, b -> b.getStats().getFlushCount())
+                    .register(registry);
+            FunctionCounter.builder("member.age.buffer.flushed.rows", memberAgeWriteBuffer, b -> b.getStats().getFlushedRows())
+                    .register(registry);
+            Gauge.builder("member.age.buffer.flush.lag", memberAgeWriteBuffer, b -> b.getStats().getLastFlushLagNanos() / 1e9)
+                    .baseUnit("seconds").register(registry);
+        };
+    }
+}
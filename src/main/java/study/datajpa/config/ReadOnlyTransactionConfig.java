@@ -0,0 +1,53 @@
+package study.datajpa.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * readOnly 트랜잭션이면 스프링(HibernateJpaDialect)이 세션을 기본 읽기 전용 + FlushMode.MANUAL 로 연다.
+ * 스냅샷도 커밋 시 flush 도 없으므로 여기서는 그 안에서의 쓰기만 막는다.
+ * statement inspector 는 하나만 둘 수 있어 요청 메모 무효화도 여기서 같이 건다.
+ */
+@Configuration
+public class ReadOnlyTransactionConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer readOnlyWriteGuardCustomizer() {
+        ReadOnlyWriteGuard guard = new ReadOnlyWriteGuard();
+        RequestMemoInvalidator memoInvalidator = new RequestMemoInvalidator();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    (StatementInspector) sql -> memoInvalidator.inspect(guard.inspect(sql)));
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new Integrator() {
+                        @Override
+                        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                                              SessionFactoryServiceRegistry serviceRegistry) {
+                            EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                            registry.prependListeners(EventType.PERSIST, guard);
+                            registry.prependListeners(EventType.MERGE, guard);
+                            registry.prependListeners(EventType.DELETE, guard);
+                            registry.appendListeners(EventType.FLUSH, memoInvalidator);
+                        }
+
+                        @Override
+                        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                                 SessionFactoryServiceRegistry serviceRegistry) {
+                        }
+                    }));
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.config;
+
+import org.hibernate.event.spi.DeleteEvent;
+import org.hibernate.event.spi.DeleteEventListener;
+import org.hibernate.event.spi.MergeEvent;
+import org.hibernate.event.spi.MergeEventListener;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 읽기 전용 트랜잭션에서의 쓰기를 바로 실패시킨다.
+ * 읽기 전용 세션은 FlushMode.MANUAL 이라 persist/remove 가 조용히 버려지고, 벌크 DML 은 그대로 실행되기 때문이다.
+ * 읽기 전용으로 읽은 엔티티의 필드 변경은 스냅샷이 없어 감지할 수 없고 반영되지도 않는다.
+ */
+public class ReadOnlyWriteGuard implements PersistEventListener, MergeEventListener, DeleteEventListener, StatementInspector {
+
+    private static final Pattern DML = Pattern.compile("^\\s*(/\\*.*?\\*/\\s*)*(insert|update|delete|merge)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    @Override
+    public void onPersist(PersistEvent event) {
+        check("persist", event.getEntityName());
+    }
+
+    @Override
+    public void onPersist(PersistEvent event, Map createdAlready) {
+        check("persist", event.getEntityName());
+    }
+
+    @Override
+    public void onMerge(MergeEvent event) {
+        check("merge", event.getEntityName());
+    }
+
+    @Override
+    public void onMerge(MergeEvent event, Map copiedAlready) {
+        check("merge", event.getEntityName());
+    }
+
+    @Override
+    public void onDelete(DeleteEvent event) {
+        check("remove", event.getEntityName());
+    }
+
+    @Override
+    public void onDelete(DeleteEvent event, Set transientEntities) {
+        check("remove", event.getEntityName());
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (isWrite(sql)) {
+            check("execute", sql);
+        }
+        return sql;
+    }
+
+    static boolean isWrite(String sql) {
+        return DML.matcher(sql).lookingAt();
+    }
+
+    private static void check(String action, String target) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new InvalidDataAccessApiUsageException("읽기 전용 트랜잭션에서는 " + action + " 할 수 없습니다: " + target);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 리파지토리 메서드가 돌려준 엔티티/행 수를 메서드별 분포로 남긴다. 실행 시간은 스프링 부트의
+ * spring.data.repository.invocations 타이머가 같은 태그로 기록한다.
+ * 개수로 볼 수 없는 반환값(count, 벌크 수정 건수, Stream 등)은 기록하지 않는다.
+ */
+public class RepositoryResultSizeInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "spring.data.repository.results";
+
+    private final Supplier<MeterRegistry> registry;
+    private final String repository;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    //레지스트리는 첫 호출 때 꺼낸다. 리파지토리 생성 시점에 만들면 MeterFilter 가 적용되기 전일 수 있다.
+    public RepositoryResultSizeInterceptor(Supplier<MeterRegistry> registry, Class<?> repositoryInterface) {
+        this.registry = registry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        long size = sizeOf(result, invocation.getMethod().getReturnType());
+        if (size >= 0) {
+            summaries.computeIfAbsent(invocation.getMethod(), this::summary).record(size);
+        }
+        return result;
+    }
+
+    private DistributionSummary summary(Method method) {
+        return DistributionSummary.builder(METRIC_NAME)
+                .description("리파지토리 메서드가 돌려준 결과 수")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .publishPercentileHistogram()
+                .register(registry.get());
+    }
+
+    private static long sizeOf(Object result, Class<?> returnType) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (returnType == void.class || returnType.isPrimitive() || Number.class.isAssignableFrom(returnType)
+                || returnType == Boolean.class || Stream.class.isAssignableFrom(returnType)) {
+            return -1;
+        }
+        return result == null ? 0 : 1;
+    }
+}
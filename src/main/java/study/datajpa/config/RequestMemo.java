@@ -0,0 +1,84 @@
+package study.datajpa.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청 속성에 붙는 리파지토리 결과 메모. 불변 결과나 엔티티 id 만 담으므로 세션이나 트랜잭션이 바뀌어도
+ * 요청이 끝날 때까지 그대로 쓴다.
+ */
+class RequestMemo {
+
+    private static final String ATTRIBUTE = RequestMemo.class.getName();
+
+    private final Map<Key, Object> results = new HashMap<>();
+
+    /**
+     * @return 웹 요청 밖이면 null
+     */
+    static RequestMemo current(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        RequestMemo memo = (RequestMemo) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null && create) {
+            memo = new RequestMemo();
+            attributes.setAttribute(ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+
+    static void invalidateCurrent() {
+        RequestMemo memo = current(false);
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    Object get(Key key) {
+        return results.get(key);
+    }
+
+    void put(Key key, Object result) {
+        results.put(key, result);
+    }
+
+    void clear() {
+        results.clear();
+    }
+
+    static final class Key {
+        private final Method method;
+        private final Object[] args;
+        private final int hash;
+
+        Key(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+            this.hash = 31 * method.hashCode() + Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return method.equals(other.method) && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
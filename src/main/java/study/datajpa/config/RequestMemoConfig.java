@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 리파지토리 프록시에 {@link RequestMemoInterceptor} 를 붙인다. id 로 다시 만들 수 없는 엔티티 결과(Page, Slice 등)에 붙은
+ * @RequestMemoized 는 프록시를 만들 때 거부한다.
+ */
+@Configuration
+public class RequestMemoConfig {
+
+    @Bean
+    public static BeanPostProcessor requestMemoBeanPostProcessor(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+                                RequestMemoInterceptor.verify(information.getRepositoryInterface());
+                                proxyFactory.addAdvice(new RequestMemoInterceptor(information.getRepositoryInterface(), entityManagerFactory::getObject));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
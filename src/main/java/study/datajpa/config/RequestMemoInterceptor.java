@@ -0,0 +1,171 @@
+package study.datajpa.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.repository.RequestMemoized;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link RequestMemoized} 메서드의 결과를 요청 메모에서 찾고, 없으면 실행한 뒤 넣는다.
+ * 엔티티 결과는 id 만 메모해 두고, 다시 부르면 지금 세션에서 id 로 읽어 돌려준다. 이미 영속성 컨텍스트에 있으면 쿼리가 없다.
+ * 현재 세션에 flush 되지 않은 변경(고친 엔티티 포함)이 있으면 메모를 버리고 실행해 auto flush 가 일어나게 한다.
+ */
+public class RequestMemoInterceptor implements MethodInterceptor {
+
+    private final Class<?> repositoryInterface;
+    private final Supplier<EntityManagerFactory> entityManagerFactory;
+    private final Map<Method, Optional<Class<?>>> entityTypes = new ConcurrentHashMap<>();
+
+    public RequestMemoInterceptor(Class<?> repositoryInterface, Supplier<EntityManagerFactory> entityManagerFactory) {
+        this.repositoryInterface = repositoryInterface;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * 엔티티 결과는 List, Optional, 엔티티 하나만 id 로 다시 만들 수 있다. Page, Slice, Stream 같은 다른 모양은 거부한다.
+     */
+    static void verify(Class<?> repositoryInterface) {
+        for (Method method : repositoryInterface.getMethods()) {
+            if (!method.isAnnotationPresent(RequestMemoized.class)) {
+                continue;
+            }
+            Class<?> entityType = entityType(method, repositoryInterface);
+            Class<?> returnType = method.getReturnType();
+            if (entityType != null && returnType != List.class && returnType != Optional.class && returnType != entityType) {
+                throw new IllegalStateException("@RequestMemoized 는 엔티티를 List, Optional, 단건으로 돌려주는 메서드에만 쓸 수 있습니다: " + method);
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!method.isAnnotationPresent(RequestMemoized.class)) {
+            return invocation.proceed();
+        }
+        RequestMemo memo = RequestMemo.current(true);
+        if (memo == null) {
+            return invocation.proceed();
+        }
+
+        SessionImplementor session = currentSession();
+        RequestMemo.Key key = new RequestMemo.Key(method, copyArguments(invocation.getArguments()));
+        Object memoized = memo.get(key);
+        if (memoized != null) {
+            //dirty checking 까지 해서 고친 엔티티가 있으면 쿼리를 실제로 실행한다.
+            Object result = session == null || !session.isDirty() ? restore(memoized, session) : null;
+            if (result != null) {
+                return result;
+            }
+            memo.clear();
+        }
+        Object result = invocation.proceed();
+        if (result != null) {
+            memo.put(key, capture(method, result));
+        }
+        return result;
+    }
+
+    private SessionImplementor currentSession() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory.get());
+        return holder == null ? null : holder.getEntityManager().unwrap(SessionImplementor.class);
+    }
+
+    private Object capture(Method method, Object result) {
+        Class<?> entityType = entityTypes.computeIfAbsent(method, m -> Optional.ofNullable(entityType(m, repositoryInterface))).orElse(null);
+        if (entityType == null) {
+            return copyResult(result);
+        }
+        List<?> entities;
+        if (result instanceof List) {
+            entities = (List<?>) result;
+        } else if (result instanceof Optional) {
+            entities = ((Optional<?>) result).isPresent() ? List.of(((Optional<?>) result).get()) : List.of();
+        } else {
+            entities = List.of(result);
+        }
+        List<Serializable> ids = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            ids.add((Serializable) entityManagerFactory.get().getPersistenceUnitUtil().getIdentifier(entity));
+        }
+        return new EntityIds(entityType, ids, method.getReturnType());
+    }
+
+    /**
+     * @return 메모로 결과를 만들 수 없으면(세션이 없거나 그새 지워진 엔티티가 있으면) null
+     */
+    private Object restore(Object memoized, SessionImplementor session) {
+        if (!(memoized instanceof EntityIds)) {
+            return copyResult(memoized);
+        }
+        EntityIds entityIds = (EntityIds) memoized;
+        if (session == null) {
+            return null;
+        }
+        List<?> entities = List.of();
+        if (!entityIds.ids.isEmpty()) {
+            entities = session.byMultipleIds(entityIds.entityType)
+                    .enableSessionCheck(true)
+                    .multiLoad(entityIds.ids);
+            if (entities.contains(null)) {
+                return null;
+            }
+        }
+        if (entityIds.shape == List.class) {
+            return new ArrayList<>(entities);
+        }
+        if (entityIds.shape == Optional.class) {
+            return entities.isEmpty() ? Optional.empty() : Optional.of(entities.get(0));
+        }
+        return entities.get(0);
+    }
+
+    private static Class<?> entityType(Method method, Class<?> repositoryInterface) {
+        ResolvableType returnType = ResolvableType.forMethodReturnType(method, repositoryInterface);
+        Class<?> resultType = returnType.hasGenerics() ? returnType.getGeneric(0).resolve() : returnType.resolve();
+        return resultType != null && AnnotatedElementUtils.hasAnnotation(resultType, Entity.class) ? resultType : null;
+    }
+
+    //호출한 쪽이 인자 컬렉션이나 결과 리스트를 고쳐도 메모가 바뀌지 않도록 복사해 둔다.
+    private static Object[] copyArguments(Object[] args) {
+        Object[] copy = args.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] instanceof Collection) {
+                copy[i] = new ArrayList<>((Collection<?>) copy[i]);
+            }
+        }
+        return copy;
+    }
+
+    private static Object copyResult(Object result) {
+        return result instanceof List ? new ArrayList<>((List<?>) result) : result;
+    }
+
+    private static final class EntityIds {
+        private final Class<?> entityType;
+        private final List<Serializable> ids;
+        private final Class<?> shape;
+
+        private EntityIds(Class<?> entityType, List<Serializable> ids, Class<?> shape) {
+            this.entityType = entityType;
+            this.ids = ids;
+            this.shape = shape;
+        }
+    }
+}
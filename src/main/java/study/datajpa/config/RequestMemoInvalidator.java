@@ -0,0 +1,25 @@
+package study.datajpa.config;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 쓰기 SQL(flush, 벌크 DML, 네이티브 DML 모두)이 나가거나 명시적으로 flush 하면 현재 요청의 메모를 비운다.
+ */
+public class RequestMemoInvalidator implements FlushEventListener, StatementInspector {
+
+    @Override
+    public void onFlush(FlushEvent event) throws HibernateException {
+        RequestMemo.invalidateCurrent();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ReadOnlyWriteGuard.isWrite(sql)) {
+            RequestMemo.invalidateCurrent();
+        }
+        return sql;
+    }
+}
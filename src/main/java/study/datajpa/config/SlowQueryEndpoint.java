@@ -0,0 +1,24 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * /actuator/slowqueries 로 모아 둔 느린 SQL 계획을 최대 지연 시간 순으로 보여 준다.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryExplainListener slowQueryExplainListener;
+
+    @ReadOperation
+    public Collection<SlowQueryPlan> plans() {
+        return slowQueryExplainListener.getPlans();
+    }
+}
@@ -0,0 +1,165 @@
+package study.datajpa.config;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * threshold-ms 를 넘은 문장을 모양(fingerprint)별로 한 번만 EXPLAIN 해서 지연 시간과 함께 남긴다.
+ *
+ * <ul>
+ *     <li>EXPLAIN 은 스레드 하나에서 p6spy 를 거치지 않는 별도 커넥션으로 돌린다. 대기열이 차면 버린다.</li>
+ *     <li>분당 explain-per-minute 번까지만 실행해 EXPLAIN 때문에 DB 가 더 바빠지지 않게 한다.</li>
+ *     <li>계획은 max-plans 개까지 들고 있고, 이미 계획이 있는 모양은 지연 시간만 더한다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SlowQueryExplainListener extends JdbcEventListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    //DataSource 를 꾸미는 중에 이 리스너를 찾으므로 DataSource 는 처음 EXPLAIN 할 때 꺼낸다.
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final long thresholdNanos;
+    private final int maxPlans;
+    private final double permitsPerNano;
+    private final double maxPermits;
+
+    private final ConcurrentHashMap<String, SlowQueryPlan> plans = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+    private double permits;
+    private long lastRefill = System.nanoTime();
+
+    public SlowQueryExplainListener(ObjectProvider<DataSource> dataSourceProvider,
+                                    @Value("${slow-query.threshold-ms:200}") long thresholdMillis,
+                                    @Value("${slow-query.explain-per-minute:30}") int explainPerMinute,
+                                    @Value("${slow-query.max-plans:500}") int maxPlans) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.maxPlans = maxPlans;
+        this.permitsPerNano = explainPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxPermits = explainPerMinute;
+        this.permits = explainPerMinute;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), r -> {
+            Thread thread = new Thread(r, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos < thresholdNanos || e != null) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || !isExplainable(sql)) {
+            return;
+        }
+        String fingerprint = fingerprint(sql);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        SlowQueryPlan existing = plans.get(fingerprint);
+        if (existing != null) {
+            existing.record(elapsedMillis);
+            return;
+        }
+        if (plans.size() >= maxPlans || !tryAcquire()) {
+            log.warn("느린 SQL {}ms (EXPLAIN 생략): {}", elapsedMillis, fingerprint);
+            return;
+        }
+        SlowQueryPlan plan = new SlowQueryPlan(fingerprint, sql);
+        plan.record(elapsedMillis);
+        if (plans.putIfAbsent(fingerprint, plan) == null) {
+            explainExecutor.execute(() -> explain(plan));
+        }
+    }
+
+    public Collection<SlowQueryPlan> getPlans() {
+        List<SlowQueryPlan> result = new ArrayList<>(plans.values());
+        result.sort(Comparator.comparingLong(SlowQueryPlan::getMaxElapsedMillis).reversed());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void explain(SlowQueryPlan plan) {
+        DataSource dataSource = dataSourceProvider.getObject();
+        if (dataSource instanceof DecoratedDataSource) {
+            dataSource = ((DecoratedDataSource) dataSource).getRealDataSource();
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("explain " + plan.getSql())) {
+            //계획은 prepare 때 정해지므로 파라미터는 null 로 채운다.
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setNull(i, Types.NULL);
+            }
+            StringBuilder text = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    text.append(rs.getString(1)).append('\n');
+                }
+            }
+            plan.setPlan(text.toString().trim());
+            log.warn("느린 SQL {}ms: {}\n{}", plan.getLastElapsedMillis(), plan.getFingerprint(), plan.getPlan());
+        } catch (SQLException | RuntimeException ex) {
+            plan.setPlan("EXPLAIN 실패: " + ex.getMessage());
+            log.warn("EXPLAIN 에 실패했습니다: {}", plan.getFingerprint(), ex);
+        }
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        permits = Math.min(maxPermits, permits + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        if (permits < 1) {
+            return false;
+        }
+        permits--;
+        return true;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return head.startsWith("select") || head.startsWith("with") || head.startsWith("update") || head.startsWith("delete");
+    }
+
+    /**
+     * 리터럴과 IN 목록 길이를 지워 같은 모양의 문장을 하나로 묶는다.
+     */
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return IN_LIST.matcher(normalized).replaceAll("(?+)");
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 느린 문장 모양 하나의 실행 계획과 지금까지 관측한 지연 시간.
+ */
+@Getter
+public class SlowQueryPlan {
+
+    private final String fingerprint;
+    private final String sql;
+    private final LocalDateTime capturedAt = LocalDateTime.now();
+    private volatile String plan;
+    private volatile long samples;
+    private volatile long lastElapsedMillis;
+    private volatile long maxElapsedMillis;
+
+    SlowQueryPlan(String fingerprint, String sql) {
+        this.fingerprint = fingerprint;
+        this.sql = sql;
+    }
+
+    synchronized void record(long elapsedMillis) {
+        samples++;
+        lastElapsedMillis = elapsedMillis;
+        maxElapsedMillis = Math.max(maxElapsedMillis, elapsedMillis);
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
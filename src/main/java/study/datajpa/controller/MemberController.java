@@ -4,25 +4,62 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import study.datajpa.config.AdmissionControlled;
+import study.datajpa.dto.CompactMemberPage;
+import study.datajpa.dto.MemberBatchDto;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
-import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberFetchPlan;
+import study.datajpa.service.MemberService;
+import study.datajpa.support.InvalidRequestException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 
 @RestController
 @RequiredArgsConstructor
+@AdmissionControlled
 public class MemberController {
 
-    private final MemberRepository memberRepository;
+    private static final String EMPTY_USERNAME = "empty";
+
+    private final MemberService memberService;
 
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).orElse(Member.createMember("empty", 30, null));
+    public String findMember(@PathVariable("id") Long id,
+                             @RequestParam(value = "includeArchive", defaultValue = "false") boolean includeArchive,
+                             WebRequest request) {
+        Optional<MemberSnapshot> member = memberService.findSnapshot(id, includeArchive);
+        LocalDateTime updateDate = member.map(MemberSnapshot::getUpdateDate).orElse(null);
+        if (updateDate != null) {
+            long lastModified = updateDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (request.checkNotModified(memberEtag(id, lastModified), lastModified)) {
+                return null;
+            }
+        }
+        return member.map(MemberSnapshot::getUsername).orElse(EMPTY_USERNAME);
+    }
+
+    @GetMapping("/members/search")
+    public List<MemberDto> searchMembers(@RequestParam("q") String query,
+                                         @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return memberService.searchByUsername(query, limit);
+    }
 
-        return member.getUsername();
+    @GetMapping("/members/by-username")
+    public List<MemberSnapshot> findMembersByUsername(@RequestParam("username") String username,
+                                                      @RequestParam(value = "includeArchive", defaultValue = "false") boolean includeArchive) {
+        return memberService.findByUsername(username, includeArchive);
     }
 
     @GetMapping("/members2/{id}")
@@ -32,7 +69,45 @@ public class MemberController {
 
     @GetMapping("/members")
     public Page<MemberDto> findMember(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+        return memberService.findMembers(pageable);
+    }
+
+    /**
+     * fields=minimal|withTeam|full 로 읽을 범위를 고른다. 고른 plan 에 없는 필드는 응답에서 빠진다.
+     */
+    @GetMapping(value = "/members", params = "fields")
+    public Page<MemberView> findMemberWithPlan(@RequestParam("fields") String fields,
+                                               @PageableDefault(size = 5, sort = "username") Pageable pageable) {
+        return memberService.findMembers(MemberFetchPlan.from(fields), pageable);
+    }
+
+    @GetMapping(value = "/members", produces = CompactMemberPage.MEDIA_TYPE)
+    public CompactMemberPage findMemberCompact(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
+        return memberService.findMembersCompact(pageable);
+    }
+
+    @GetMapping(value = "/members", params = "ids")
+    public MemberBatchDto findMembers(@RequestParam("ids") List<Long> ids) {
+        return memberService.findMembersByIds(ids);
+    }
+
+    @GetMapping(value = "/members", params = "usernames")
+    public List<MemberDto> findMembersByUsernames(@RequestParam("usernames") List<String> usernames) {
+        return memberService.findByUsernames(usernames);
+    }
+
+    @PostMapping("/members/batch")
+    public MemberBatchDto findMembersByBody(@RequestBody List<Long> ids) {
+        return memberService.findMembersByIds(ids);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(InvalidRequestException e) {
+        return Map.of("message", Objects.toString(e.getMessage(), "잘못된 요청입니다."));
+    }
+
+    private String memberEtag(Long id, long lastModified) {
+        return "member-" + id + "-" + lastModified;
     }
 }
@@ -0,0 +1,50 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.config.AdmissionControlled;
+import study.datajpa.dto.TeamMembersDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.TeamStatsRepository;
+import study.datajpa.support.InvalidRequestException;
+
+import java.util.Map;
+import java.util.Objects;
+
+@RestController
+@RequiredArgsConstructor
+@AdmissionControlled
+public class TeamController {
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamRepository teamRepository;
+
+    @GetMapping("/teams")
+    public Page<TeamMembersDto> teams(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                                      @RequestParam(defaultValue = "10") int membersLimit) {
+        return teamRepository.findTeamsWithMembers(pageable, membersLimit);
+    }
+
+    @GetMapping("/teams/{id}/stats")
+    public TeamStatsDto teamStats(@PathVariable("id") Long id) {
+        return teamStatsRepository.findStats(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "팀이 없습니다. id=" + id));
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(InvalidRequestException e) {
+        return Map.of("message", Objects.toString(e.getMessage(), "잘못된 요청입니다."));
+    }
+}
@@ -0,0 +1,266 @@
+package study.datajpa.dataset;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 팀/회원 대량 데이터를 JDBC 배치로 바로 넣는다. 엔티티, 영속성 컨텍스트, 리스너를 거치지 않는다.
+ *
+ * <ul>
+ *     <li>팀 크기는 Zipf 분포, 성은 인기 순 Zipf, 나이는 20~60대에 몰리도록 뽑는다.</li>
+ *     <li>회원은 batchSize 개씩 청크로 나누고, 청크마다 seed 와 청크 번호로 난수를 만들어 스레드 수와 상관없이 결과가 같다.</li>
+ *     <li>생산자마다 커넥션 하나로 청크를 배치 INSERT 하고 커밋한다.</li>
+ *     <li>id 는 hibernate_sequence 에서 증가 폭을 늘린 NEXT VALUE 한 번으로 범위째 잡는다. team_stats 도 함께 채운다.</li>
+ * </ul>
+ * 테이블은 이미 있어야 한다(ddl-auto). p6spy 로 감싼 데이터소스를 넘기면 배치마다 로그가 남아 느려진다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private static final String[] GIVEN_NAMES = {
+            "minjun", "seoyeon", "jiho", "seoyun", "doyun", "jiwoo", "eunwoo", "hayun", "siwoo", "jiyu",
+            "yejun", "haeun", "juwon", "sua", "hajun", "jian", "yuchan", "chaewon", "jihun", "dayeon",
+            "james", "olivia", "liam", "emma", "noah", "ava", "lucas", "mia", "ethan", "sophia"};
+    private static final String[] FAMILY_NAMES = {
+            "kim", "lee", "park", "choi", "jung", "kang", "cho", "yoon", "jang", "lim",
+            "han", "oh", "seo", "shin", "kwon", "hwang", "ahn", "song", "jeon", "hong"};
+
+    private static final Object RESERVE_LOCK = new Object();
+
+    private final DataSource dataSource;
+
+    public Result generate(DatasetSpec spec) {
+        long start = System.currentTimeMillis();
+        long firstId = reserveIds(spec.getTeams() + spec.getMembers());
+        long firstMemberId = firstId + spec.getTeams();
+        Timestamp now = new Timestamp(start);
+
+        insertTeams(spec, firstId, now);
+        TeamAggregates aggregates = insertMembers(spec, firstId, firstMemberId, now);
+        insertTeamStats(spec, firstId, aggregates);
+
+        Result result = new Result(spec.getTeams(), spec.getMembers(), firstId, System.currentTimeMillis() - start);
+        log.info("데이터셋 생성 완료: 팀 {}개, 회원 {}명, {}ms", result.getTeams(), result.getMembers(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 시퀀스 증가 폭을 count 로 바꾼 채 NEXT VALUE 를 한 번 받아 [firstId, firstId + count) 를 통째로 잡고 폭을 1 로 되돌린다.
+     * 그 사이 다른 세션이 받는 값은 이 범위 밖에서 count 만큼 건너뛸 뿐 겹치지 않는다. 생성기끼리는 RESERVE_LOCK 으로 줄을 세운다.
+     */
+    private long reserveIds(long count) {
+        synchronized (RESERVE_LOCK) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("alter sequence hibernate_sequence increment by " + count);
+                try (ResultSet rs = statement.executeQuery("select next value for hibernate_sequence")) {
+                    rs.next();
+                    return rs.getLong(1);
+                } finally {
+                    statement.execute("alter sequence hibernate_sequence increment by 1");
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("id 를 잡지 못했습니다.", e);
+            }
+        }
+    }
+
+    private void insertTeams(DatasetSpec spec, long firstTeamId, Timestamp now) {
+        execute("insert into team (team_id, name, create_date, update_date) values (?, ?, ?, ?)", spec.getTeams(), spec.getBatchSize(),
+                (ps, i) -> {
+                    ps.setLong(1, firstTeamId + i);
+                    ps.setString(2, "team" + i);
+                    ps.setTimestamp(3, now);
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    private void insertTeamStats(DatasetSpec spec, long firstTeamId, TeamAggregates aggregates) {
+        execute("insert into team_stats (team_id, member_count, age_sum, min_age, max_age, bounds_stale) values (?, ?, ?, ?, ?, false)",
+                spec.getTeams(), spec.getBatchSize(),
+                (ps, i) -> {
+                    int team = (int) i;
+                    ps.setLong(1, firstTeamId + team);
+                    ps.setLong(2, aggregates.counts[team]);
+                    ps.setLong(3, aggregates.ageSums[team]);
+                    if (aggregates.counts[team] == 0) {
+                        ps.setNull(4, Types.INTEGER);
+                        ps.setNull(5, Types.INTEGER);
+                    } else {
+                        ps.setInt(4, aggregates.minAges[team]);
+                        ps.setInt(5, aggregates.maxAges[team]);
+                    }
+                });
+    }
+
+    private TeamAggregates insertMembers(DatasetSpec spec, long firstTeamId, long firstMemberId, Timestamp now) {
+        double[] teamCdf = zipfCdf(spec.getTeams(), spec.getZipfExponent());
+        double[] familyCdf = zipfCdf(FAMILY_NAMES.length, 1.0);
+        long chunks = (spec.getMembers() + spec.getBatchSize() - 1) / spec.getBatchSize();
+        AtomicLong nextChunk = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(spec.getProducers());
+        try {
+            List<Future<TeamAggregates>> futures = new ArrayList<>();
+            for (int p = 0; p < spec.getProducers(); p++) {
+                futures.add(executor.submit(() -> {
+                    TeamAggregates local = new TeamAggregates(spec.getTeams());
+                    try (Connection connection = dataSource.getConnection();
+                         PreparedStatement ps = connection.prepareStatement("insert into member" +
+                                 " (member_id, username, age, team_id, create_date, update_date) values (?, ?, ?, ?, ?, ?)")) {
+                        connection.setAutoCommit(false);
+                        long chunk;
+                        while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                            SplittableRandom random = new SplittableRandom(spec.getSeed() * 0x9E3779B97F4A7C15L + chunk);
+                            long from = chunk * spec.getBatchSize();
+                            long to = Math.min(from + spec.getBatchSize(), spec.getMembers());
+                            for (long i = from; i < to; i++) {
+                                int team = sample(teamCdf, random);
+                                int age = age(random);
+                                ps.setLong(1, firstMemberId + i);
+                                ps.setString(2, username(random, familyCdf));
+                                ps.setInt(3, age);
+                                ps.setLong(4, firstTeamId + team);
+                                ps.setTimestamp(5, now);
+                                ps.setTimestamp(6, now);
+                                ps.addBatch();
+                                local.add(team, age);
+                            }
+                            ps.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                    return local;
+                }));
+            }
+            TeamAggregates total = new TeamAggregates(spec.getTeams());
+            for (Future<TeamAggregates> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("데이터 생성 중 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("회원 데이터를 넣지 못했습니다.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void execute(String sql, long rows, int batchSize, RowBinder binder) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            for (long i = 0; i < rows; i++) {
+                binder.bind(ps, i);
+                ps.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("데이터를 넣지 못했습니다: " + sql, e);
+        }
+    }
+
+    private static String username(SplittableRandom random, double[] familyCdf) {
+        String given = GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+        String family = FAMILY_NAMES[sample(familyCdf, random)];
+        //넷 중 하나는 숫자 없이, 나머지는 뒤에 숫자를 붙인다.
+        return random.nextInt(4) == 0 ? given + "." + family : given + "." + family + random.nextInt(10_000);
+    }
+
+    //세 난수의 평균으로 가운데(40세 전후)에 몰리게 한다.
+    private static int age(SplittableRandom random) {
+        double bell = (random.nextDouble() + random.nextDouble() + random.nextDouble()) / 3;
+        return 15 + (int) (bell * 55);
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, long row) throws SQLException;
+    }
+
+    private static final class TeamAggregates {
+        final long[] counts;
+        final long[] ageSums;
+        final int[] minAges;
+        final int[] maxAges;
+
+        TeamAggregates(int teams) {
+            counts = new long[teams];
+            ageSums = new long[teams];
+            minAges = new int[teams];
+            maxAges = new int[teams];
+            Arrays.fill(minAges, Integer.MAX_VALUE);
+            Arrays.fill(maxAges, Integer.MIN_VALUE);
+        }
+
+        void add(int team, int age) {
+            counts[team]++;
+            ageSums[team] += age;
+            minAges[team] = Math.min(minAges[team], age);
+            maxAges[team] = Math.max(maxAges[team], age);
+        }
+
+        void merge(TeamAggregates other) {
+            for (int team = 0; team < counts.length; team++) {
+                counts[team] += other.counts[team];
+                ageSums[team] += other.ageSums[team];
+                minAges[team] = Math.min(minAges[team], other.minAges[team]);
+                maxAges[team] = Math.max(maxAges[team], other.maxAges[team]);
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final int teams;
+        private final long members;
+        /** 첫 번째 팀 id. 회원 id 는 firstId + teams 부터 이어진다. */
+        private final long firstId;
+        private final long elapsedMillis;
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.dataset;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 생성할 데이터셋의 크기와 분포. 같은 스펙과 seed 면 id, 이름, 나이, 팀 배정이 항상 같다.
+ */
+@Getter
+@Builder
+public class DatasetSpec {
+
+    @Builder.Default
+    private final int teams = 1_000;
+
+    @Builder.Default
+    private final long members = 1_000_000;
+
+    /** 팀 크기 분포의 Zipf 지수. 0 이면 균등, 클수록 상위 팀에 몰린다. */
+    @Builder.Default
+    private final double zipfExponent = 1.1;
+
+    @Builder.Default
+    private final long seed = 42L;
+
+    @Builder.Default
+    private final int producers = Runtime.getRuntime().availableProcessors();
+
+    @Builder.Default
+    private final int batchSize = 5_000;
+}
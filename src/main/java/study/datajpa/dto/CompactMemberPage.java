@@ -0,0 +1,48 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Page 의 pageable/sort 메타데이터 대신 다음 페이지 번호와 (알 수 있을 때만) 전체 개수만 담는 응답.
+ * Accept: application/vnd.datajpa.compact+json 요청에 쓰인다.
+ */
+@Getter
+@JsonSerialize(using = CompactMemberPageSerializer.class)
+public class CompactMemberPage {
+
+    public static final String MEDIA_TYPE = "application/vnd.datajpa.compact+json";
+
+    private final List<MemberDto> content;
+    private final int page;
+    private final Integer next;
+    private final Long total;
+
+    public CompactMemberPage(Slice<MemberDto> slice) {
+        this.content = slice.getContent();
+        this.page = slice.getNumber();
+        this.next = slice.hasNext() ? slice.getNumber() + 1 : null;
+        this.total = knownTotal(slice);
+    }
+
+    /**
+     * 마지막 페이지면 count 쿼리 없이도 전체 개수를 안다. 다만 끝을 넘어선 빈 페이지는 offset 만으로
+     * 개수를 알 수 없으므로(첫 페이지 제외) 비워 둔다.
+     */
+    private static Long knownTotal(Slice<MemberDto> slice) {
+        if (slice.hasNext()) {
+            return null;
+        }
+        if (slice.getPageable().isUnpaged()) {
+            return (long) slice.getNumberOfElements();
+        }
+        long offset = slice.getPageable().getOffset();
+        if (slice.hasContent() || offset == 0) {
+            return offset + slice.getNumberOfElements();
+        }
+        return null;
+    }
+}
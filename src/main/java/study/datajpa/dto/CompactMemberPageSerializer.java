@@ -0,0 +1,65 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * 리플렉션 기반 빈 직렬화를 거치지 않고 JsonGenerator 로 바로 쓴다. 필드 이름은 미리 인코딩해 둔다.
+ */
+public class CompactMemberPageSerializer extends StdSerializer<CompactMemberPage> {
+
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString NEXT = new SerializedString("next");
+    private static final SerializedString TOTAL = new SerializedString("total");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString TEAM_NAME = new SerializedString("teamName");
+
+    public CompactMemberPageSerializer() {
+        super(CompactMemberPage.class);
+    }
+
+    @Override
+    public void serialize(CompactMemberPage value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        for (MemberDto member : value.getContent()) {
+            writeMember(member, gen);
+        }
+        gen.writeEndArray();
+        gen.writeFieldName(PAGE);
+        gen.writeNumber(value.getPage());
+        if (value.getNext() != null) {
+            gen.writeFieldName(NEXT);
+            gen.writeNumber(value.getNext());
+        }
+        if (value.getTotal() != null) {
+            gen.writeFieldName(TOTAL);
+            gen.writeNumber(value.getTotal());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeMember(MemberDto member, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        if (member.getId() != null) {
+            gen.writeFieldName(ID);
+            gen.writeNumber(member.getId());
+        }
+        if (member.getUsername() != null) {
+            gen.writeFieldName(USERNAME);
+            gen.writeString(member.getUsername());
+        }
+        if (member.getTeamName() != null) {
+            gen.writeFieldName(TEAM_NAME);
+            gen.writeString(member.getTeamName());
+        }
+        gen.writeEndObject();
+    }
+}
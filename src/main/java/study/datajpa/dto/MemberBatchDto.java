@@ -0,0 +1,17 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberBatchDto {
+
+    private List<MemberDto> members;
+    private List<Long> missingIds;
+
+    public MemberBatchDto(List<MemberDto> members, List<Long> missingIds) {
+        this.members = members;
+        this.missingIds = missingIds;
+    }
+}
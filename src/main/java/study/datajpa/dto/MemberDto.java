@@ -18,7 +18,7 @@ public class MemberDto {
 
     public MemberDto(Member member) {
         id = member.getId();
-        username = getUsername();
-        teamName = null;
+        username = member.getUsername();
+        teamName = member.getTeam() == null ? null : member.getTeam().getName();
     }
 }
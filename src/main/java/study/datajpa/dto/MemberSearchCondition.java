@@ -0,0 +1,12 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberSearchCondition {
+
+    private String username;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private String teamName;
+}
@@ -0,0 +1,17 @@
+package study.datajpa.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * 캐시에 들고 있는 회원의 불변 사본. 엔티티가 아니므로 영속성 컨텍스트 밖에서 여러 요청이 같이 써도 된다.
+ */
+@Value
+public class MemberSnapshot {
+    Long id;
+    String username;
+    int age;
+    Long teamId;
+    LocalDateTime updateDate;
+}
@@ -0,0 +1,41 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import study.datajpa.entity.Member;
+
+import java.time.LocalDateTime;
+
+/**
+ * fetch plan 에 따라 채워지는 필드가 다른 회원 응답. 읽지 않은 필드는 null 이고 응답에서 빠진다.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MemberView {
+
+    private final Long id;
+    private final String username;
+    private final Integer age;
+    private final Long teamId;
+    private final String teamName;
+    private final LocalDateTime createDate;
+    private final LocalDateTime updateDate;
+
+    public static MemberView minimal(Long id, String username) {
+        return new MemberView(id, username, null, null, null, null, null);
+    }
+
+    public static MemberView withTeam(Long id, String username, Integer age, Long teamId, String teamName) {
+        return new MemberView(id, username, age, teamId, teamName, null, null);
+    }
+
+    public static MemberView full(Member member) {
+        return new MemberView(member.getId(), member.getUsername(), member.getAge(),
+                member.getTeam() == null ? null : member.getTeam().getId(),
+                member.getTeam() == null ? null : member.getTeam().getName(),
+                member.getCreateDate(), member.getUpdateDate());
+    }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 팀과 그 팀의 회원 일부. members 는 회원 id 순으로 요청한 membersLimit 명까지만 담고, memberCount 는 잘리기 전 전체 인원이다.
+ */
+@Data
+public class TeamMembersDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private List<MemberItem> members = new ArrayList<>();
+
+    public TeamMembersDto(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    @Data
+    public static class MemberItem {
+        private Long id;
+        private String username;
+        private int age;
+
+        public MemberItem(Long id, String username, int age) {
+            this.id = id;
+            this.username = username;
+            this.age = age;
+        }
+    }
+}
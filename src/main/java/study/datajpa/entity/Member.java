@@ -1,12 +1,21 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.DynamicUpdate;
+import study.datajpa.cache.MemberCacheListener;
+import study.datajpa.search.UsernameIndexListener;
 
 import javax.persistence.*;
 
 import static javax.persistence.FetchType.*;
 
 @Entity
+//보관 대상(오래된 회원)을 찾는 스캔용
+@Table(indexes = @Index(name = "idx_member_create_date", columnList = "create_date"))
+@EntityListeners({TeamStatsListener.class, UsernameIndexListener.class, MemberCacheListener.class})
+//나이 쓰기 버퍼가 SQL 로 더한 age 를 다른 컬럼 변경이 로딩 시점 값으로 덮어쓰지 않도록 바뀐 컬럼만 UPDATE 한다.
+@DynamicUpdate
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
@@ -22,6 +31,17 @@ public class Member extends BaseEntity {
     @ToString.Exclude
     private Team team;
 
+    //team_stats 에 마지막으로 반영된 팀과 나이. TeamStatsListener 가 로딩/저장/수정 때 맞춘다.
+    @Transient
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Long statsTeamId;
+
+    @Transient
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int statsAge;
+
     public Member(String username) {
         this.username = username;
     }
@@ -37,7 +57,35 @@ public class Member extends BaseEntity {
     }
 
     public void changeTeam(Team team) {
+        if (this.team != null) {
+            //이미 로딩된 컬렉션만 메모리에서 정리한다. 로딩 전이면 나중에 DB 에서 올바른 상태로 읽힌다.
+            if (Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+                this.team.getMembers().remove(this);
+            }
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (team != null) {
+            team.getMembers().add(this);
+        }
+    }
+
+    public void setTeam(Team team) {
+        changeTeam(team);
+    }
+
+    Long getStatsTeamId() {
+        return statsTeamId;
+    }
+
+    int getStatsAge() {
+        return statsAge;
+    }
+
+    /**
+     * 지금 팀과 나이가 team_stats 에 반영되었다고 기록한다.
+     */
+    void markStatsApplied() {
+        statsTeamId = team == null ? null : team.getId();
+        statsAge = age;
     }
 }
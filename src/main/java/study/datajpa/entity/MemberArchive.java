@@ -0,0 +1,38 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 오래된 회원을 옮겨 두는 콜드 테이블. member 와 같은 컬럼에 옮긴 시각을 더한다.
+ * 팀이 지워져도 남아 있어야 하므로 team_id 는 외래 키 없이 값으로만 들고 있다. 쓰기는 MemberArchiveRepository 의 네이티브 쿼리로 한다.
+ */
+@Entity
+@Table(name = "member_archive", indexes = @Index(name = "idx_member_archive_username", columnList = "username"))
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberArchive {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+    private String username;
+    private int age;
+    @Column(name = "team_id")
+    private Long teamId;
+    private LocalDateTime createDate;
+    private LocalDateTime updateDate;
+    private String createBy;
+    private String updateBy;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,43 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 회원 단위 작업 큐의 한 항목. 워커가 lease 를 잡은 동안에만 lease_owner 가 채워지고,
+ * lease 가 끝난 항목은 다른 워커가 다시 가져갈 수 있다. 읽기/갱신은 MemberWorkRepository 의 네이티브 쿼리로 한다.
+ */
+@Entity
+@Table(name = "member_work", indexes = @Index(name = "idx_member_work_claim", columnList = "done, lease_expires_at"))
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberWork {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    private boolean done;
+
+    private int attempts;
+
+    public MemberWork(Long memberId) {
+        this.memberId = memberId;
+    }
+}
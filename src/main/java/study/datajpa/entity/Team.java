@@ -1,12 +1,15 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(TeamStatsRowListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
@@ -18,7 +21,9 @@ public class Team extends BaseEntity {
 
     private String name;
 
+    //add 는 초기화 없이 큐에 쌓이고, size/contains 는 컬렉션 대신 쿼리로 처리한다.
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     @ToString.Exclude
     private List<Member> members = new ArrayList<>();
 
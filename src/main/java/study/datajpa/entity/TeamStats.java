@@ -0,0 +1,46 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * team_stats 테이블에 저장되는 팀 집계값. Team 매핑과 분리되어 있어 팀을 읽을 때 함께 조인되지 않고, 읽기는 TeamStatsRepository 로만 한다.
+ * 행은 팀이 INSERT 된 직후 0 으로 들어가고, 그 뒤로는 TeamStatsListener 가 같은 트랜잭션에서 SQL 상대 갱신(member_count = member_count + 1)으로 반영하므로
+ * 동시에 바뀌어도 서로의 증감을 잃지 않는다. 엔티티로는 쓰지 않으며 여기 값은 로딩 시점의 사본이다.
+ * 최소/최대 나이를 가진 회원이 빠지면 새 경계값을 알 수 없으므로 boundsStale 로 표시하고
+ * 조회나 정합성 작업에서 다시 계산한다.
+ */
+@Entity
+@Immutable
+@Table(name = "team_stats")
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+
+    private long ageSum;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    private boolean boundsStale;
+
+    public Double getAverageAge() {
+        return memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.TeamStatsRepository;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.Objects;
+
+/**
+ * 회원 INSERT/UPDATE/DELETE 가 실행된 직후 그 차이만큼 team_stats 를 SQL 로 상대 갱신한다.
+ * 이전 값은 로딩이나 마지막 반영 때 회원에 기록해 둔 팀/나이를 쓴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsListener {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    @PostLoad
+    public void loaded(Member member) {
+        member.markStatsApplied();
+    }
+
+    @PostPersist
+    public void persisted(Member member) {
+        if (member.getTeam() != null) {
+            teamStatsRepository.join(member.getTeam().getId(), member.getAge());
+        }
+        member.markStatsApplied();
+    }
+
+    @PostUpdate
+    public void updated(Member member) {
+        Long from = member.getStatsTeamId();
+        Long to = member.getTeam() == null ? null : member.getTeam().getId();
+        if (!Objects.equals(from, to)) {
+            if (from != null) {
+                teamStatsRepository.leave(from, member.getStatsAge());
+            }
+            if (to != null) {
+                teamStatsRepository.join(to, member.getAge());
+            }
+        } else if (to != null && member.getStatsAge() != member.getAge()) {
+            teamStatsRepository.changeAge(to, member.getStatsAge(), member.getAge());
+        }
+        member.markStatsApplied();
+    }
+
+    @PostRemove
+    public void removed(Member member) {
+        if (member.getStatsTeamId() != null) {
+            teamStatsRepository.leave(member.getStatsTeamId(), member.getStatsAge());
+        }
+    }
+}
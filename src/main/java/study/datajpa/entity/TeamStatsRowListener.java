@@ -0,0 +1,28 @@
+package study.datajpa.entity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.TeamStatsRepository;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * 팀이 INSERT/DELETE 된 직후 team_stats 행을 만들고 지운다. 회원 변화에 따른 증감은 TeamStatsListener 가 맡는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsRowListener {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    @PostPersist
+    public void persisted(Team team) {
+        teamStatsRepository.create(team.getId());
+    }
+
+    @PostRemove
+    public void removed(Team team) {
+        teamStatsRepository.delete(team.getId());
+    }
+}
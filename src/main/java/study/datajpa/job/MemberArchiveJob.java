@@ -0,0 +1,43 @@
+package study.datajpa.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.MemberArchiveRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * member-archive.retention-days 보다 오래된 회원을 청크 단위로 member_archive 로 옮긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "member-archive.enabled", havingValue = "true")
+public class MemberArchiveJob {
+
+    private final MemberArchiveRepository memberArchiveRepository;
+
+    @Value("${member-archive.retention-days:365}")
+    private long retentionDays;
+
+    @Value("${member-archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${member-archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int moved;
+        do {
+            moved = memberArchiveRepository.archiveChunk(cutoff, chunkSize);
+            total += moved;
+        } while (moved == chunkSize);
+        if (total > 0) {
+            log.info("{} 이전에 가입한 회원 {}명을 보관했습니다.", cutoff, total);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.TeamStatsRepository;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamStatsReconcileJob {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    @Scheduled(cron = "${team-stats.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        int repaired = teamStatsRepository.reconcile();
+        if (repaired > 0) {
+            log.warn("team_stats 불일치 {}건을 바로잡았습니다.", repaired);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package study.datajpa.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.MemberNearCache;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberWork;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.search.UsernameIndex;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static study.datajpa.entity.QMember.member;
+import static study.datajpa.support.TransactionCallbacks.afterCommit;
+
+/**
+ * 엔티티를 읽지 않고 DELETE 문으로 지운다. 회원 → 팀 순서로, CHUNK_SIZE 개씩 끊어서 실행한다.
+ * 엔티티 콜백을 타지 않으므로 팀 집계, 영속성 컨텍스트, 회원 캐시/색인은 여기서 맞춘다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional
+public class BulkDeleteRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final MemberNearCache memberNearCache;
+    private final UsernameIndex usernameIndex;
+
+    public int deleteMembersByIds(Collection<Long> ids) {
+        em.flush();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Set<Long> teamIds = new HashSet<>();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size()));
+            teamIds.addAll(findTeamIds(chunk));
+            deleted += deleteMemberChunk(chunk);
+        }
+        afterMembersDeleted(teamIds);
+        return deleted;
+    }
+
+    public int deleteMembers(Predicate predicate) {
+        em.flush();
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        Set<Long> teamIds = new HashSet<>();
+        int deleted = 0;
+        List<Long> ids;
+        while (!(ids = queryFactory.select(member.id).from(member).where(predicate).limit(CHUNK_SIZE).fetch()).isEmpty()) {
+            teamIds.addAll(findTeamIds(ids));
+            deleted += deleteMemberChunk(ids);
+        }
+        afterMembersDeleted(teamIds);
+        return deleted;
+    }
+
+    public int deleteTeam(Long teamId) {
+        return deleteTeams(List.of(teamId));
+    }
+
+    /**
+     * 팀에 속한 회원을 먼저 지우고 팀 집계, 팀 순으로 지운다.
+     * @return 지운 팀 수
+     */
+    public int deleteTeams(Collection<Long> teamIds) {
+        em.flush();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(teamIds));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size()));
+            List<Long> memberIds;
+            while (!(memberIds = em.createQuery("select m.id from Member m where m.team.id in :teamIds", Long.class)
+                    .setParameter("teamIds", chunk)
+                    .setMaxResults(CHUNK_SIZE)
+                    .getResultList()).isEmpty()) {
+                deleteMemberChunk(memberIds);
+            }
+            nativeTeamDelete("delete from team_stats where team_id in (:teamIds)", chunk);
+            deleted += nativeTeamDelete("delete from team where team_id in (:teamIds)", chunk);
+        }
+        evict(Team.class, new HashSet<>(distinctIds));
+        evict(TeamStats.class, new HashSet<>(distinctIds));
+        refreshManagedTeams();
+        return deleted;
+    }
+
+    private List<Long> findTeamIds(List<Long> memberIds) {
+        return em.createQuery("select distinct m.team.id from Member m where m.id in :ids and m.team is not null", Long.class)
+                .setParameter("ids", memberIds)
+                .getResultList();
+    }
+
+    private int deleteMemberChunk(List<Long> ids) {
+        em.createNativeQuery("delete from member_work where member_id in (:ids)")
+                .setParameter("ids", ids)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberWork.class)
+                .executeUpdate();
+        int deleted = em.createQuery("delete from Member m where m.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+
+        evict(Member.class, new HashSet<>(ids));
+        List<Long> deletedIds = List.copyOf(ids);
+        deletedIds.forEach(memberNearCache::invalidate);
+        afterCommit(() -> deletedIds.forEach(id -> {
+            memberNearCache.invalidate(id);
+            usernameIndex.remove(id);
+        }));
+        return deleted;
+    }
+
+    private void afterMembersDeleted(Set<Long> teamIds) {
+        teamStatsRepository.recalculate(teamIds);
+        refreshManagedTeams();
+    }
+
+    private int nativeTeamDelete(String sql, List<Long> teamIds) {
+        return em.createNativeQuery(sql)
+                .setParameter("teamIds", teamIds)
+                .unwrap(NativeQuery.class)
+                //건드리는 테이블을 알려 auto flush 범위를 Team 으로 좁힌다.
+                .addSynchronizedEntityClass(Team.class)
+                .executeUpdate();
+    }
+
+    /**
+     * 영속성 컨텍스트에 남은 팀의 members 컬렉션을 DB 에서 다시 읽는다.
+     */
+    private void refreshManagedTeams() {
+        List<Object> teams = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class).getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Team) {
+                teams.add(entry.getKey());
+            }
+        }
+        teams.forEach(em::refresh);
+    }
+
+    /**
+     * 지워진 엔티티를 영속성 컨텍스트에서 뺀다. 그대로 두면 다음 flush 때 UPDATE 가 0건으로 실패한다.
+     */
+    private void evict(Class<?> entityClass, Set<Long> ids) {
+        List<Object> deleted = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class).getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entityClass.isInstance(entry.getKey()) && ids.contains(entry.getValue().getId())) {
+                deleted.add(entry.getKey());
+            }
+        }
+        deleted.forEach(em::detach);
+    }
+}
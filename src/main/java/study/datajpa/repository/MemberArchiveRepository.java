@@ -0,0 +1,116 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberArchive;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * createDate 가 오래된 회원을 member 에서 member_archive 로 옮긴다. 한 번에 chunkSize 명씩, 청크마다 트랜잭션을 따로 쓴다.
+ * member 에서 지우는 것은 BulkDeleteRepository 에 맡겨 팀 집계, 회원 캐시, 이름 색인, 작업 큐를 같이 맞춘다.
+ * 기본 조회(MemberRepository 등)는 member 만 보고, 보관된 회원까지 보려면 includeArchive 를 켠 메서드를 쓴다.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberArchiveRepository {
+
+    private static final String SNAPSHOT_COLUMNS = "member_id, username, age, team_id, update_date";
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final BulkDeleteRepository bulkDeleteRepository;
+
+    /**
+     * cutoff 보다 먼저 가입한 회원을 최대 chunkSize 명 옮긴다.
+     * @return 옮긴 회원 수, chunkSize 보다 작으면 더 옮길 회원이 없다
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 0보다 커야 합니다: " + chunkSize);
+        }
+        //다른 트랜잭션이 옮기고 있는 회원은 건너뛴다. 잠근 행은 이 트랜잭션이 끝날 때까지 다른 쪽이 고치거나 옮길 수 없다.
+        List<Number> rows = em.createNativeQuery("select member_id from member" +
+                        " where create_date < :cutoff" +
+                        " order by member_id" +
+                        " fetch first :limit rows only" +
+                        " for update skip locked")
+                .setParameter("cutoff", cutoff)
+                .setParameter("limit", chunkSize)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Member.class)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Number row : rows) {
+            ids.add(row.longValue());
+        }
+        em.createNativeQuery("insert into member_archive" +
+                        " (member_id, username, age, team_id, create_date, update_date, create_by, update_by, archived_at)" +
+                        " select member_id, username, age, team_id, create_date, update_date, create_by, update_by, :archivedAt" +
+                        " from member where member_id in (:ids)")
+                .setParameter("archivedAt", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(MemberArchive.class)
+                .executeUpdate();
+        bulkDeleteRepository.deleteMembersByIds(ids);
+        return ids.size();
+    }
+
+    public Optional<MemberSnapshot> findArchivedSnapshotById(Long id) {
+        return em.createQuery("select new study.datajpa.dto.MemberSnapshot(a.memberId, a.username, a.age, a.teamId, a.updateDate)" +
+                        " from MemberArchive a where a.memberId = :id", MemberSnapshot.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    public long countArchived() {
+        return em.createQuery("select count(a) from MemberArchive a", Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * includeArchive 가 켜져 있으면 member 와 member_archive 를 union all 로 한 번에 읽는다.
+     */
+    @SuppressWarnings("unchecked")
+    public List<MemberSnapshot> findByUsername(String username, boolean includeArchive) {
+        String sql = "select " + SNAPSHOT_COLUMNS + " from member where username = :username";
+        if (includeArchive) {
+            sql += " union all select " + SNAPSHOT_COLUMNS + " from member_archive where username = :username";
+        }
+        List<Object[]> rows = em.createNativeQuery(sql + " order by member_id")
+                .setParameter("username", username)
+                .getResultList();
+        List<MemberSnapshot> snapshots = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            snapshots.add(new MemberSnapshot(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).intValue(),
+                    row[3] == null ? null : ((Number) row[3]).longValue(), toLocalDateTime(row[4])));
+        }
+        return snapshots;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
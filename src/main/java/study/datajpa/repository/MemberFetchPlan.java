@@ -0,0 +1,34 @@
+package study.datajpa.repository;
+
+import study.datajpa.support.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * 회원 목록을 읽을 때 어디까지 가져올지 정한다.
+ * <ul>
+ *     <li>MINIMAL: id, username 만 프로젝션으로 읽는다. 팀 조인이 없다.</li>
+ *     <li>WITH_TEAM: 팀 이름까지 left join 프로젝션으로 읽는다. 엔티티를 만들지 않는다.</li>
+ *     <li>FULL: 회원과 팀 엔티티를 fetch graph 로 한 번에 읽는다.</li>
+ * </ul>
+ */
+public enum MemberFetchPlan {
+    MINIMAL, WITH_TEAM, FULL;
+
+    /**
+     * minimal, withTeam(with-team, with_team), full 을 대소문자 구분 없이 받는다.
+     */
+    public static MemberFetchPlan from(String name) {
+        String normalized = name.trim().replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "minimal":
+                return MINIMAL;
+            case "withteam":
+                return WITH_TEAM;
+            case "full":
+                return FULL;
+            default:
+                throw new InvalidRequestException("지원하지 않는 fetch plan 입니다: " + name);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.MemberNearCache;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
@@ -9,16 +12,23 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
 
     @PersistenceContext
     EntityManager em;
 
+    private final TeamStatsRepository teamStatsRepository;
+    private final MemberNearCache memberNearCache;
+
+    @Transactional
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    @Transactional
     public void delete(Member member) {
         em.remove(member);
     }
@@ -50,7 +60,11 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    @Transactional
     public int bulkAgePlus() {
-        return em.createQuery("update Member m set m.age = m.age + 1").executeUpdate();
+        teamStatsRepository.applyAgePlusAll();
+        int updated = em.createQuery("update Member m set m.age = m.age + 1").executeUpdate();
+        memberNearCache.invalidateAllOnCommit();
+        return updated;
     }
 }
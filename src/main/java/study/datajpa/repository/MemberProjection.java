@@ -1,5 +1,8 @@
 package study.datajpa.repository;
 
+import study.datajpa.processor.MaterializedProjection;
+
+@MaterializedProjection
 public interface MemberProjection {
 
     Long getId();
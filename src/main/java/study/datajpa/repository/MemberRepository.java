@@ -2,31 +2,48 @@ package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
+    @RequestMemoized
     List<Member> findMemberByUsernameAndAgeGreaterThanEqual(String username, int age);
 
+    @RequestMemoized
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String  username, @Param("age") int age);
 
     @Query("select m.username from Member m")
     List<String> findUserNames();
 
+    @EntityGraph(attributePaths = "team")
+    Page<Member> findWithTeamBy(Pageable pageable);
+
+    @EntityGraph(attributePaths = "team")
+    Slice<Member> findSliceWithTeamBy(Pageable pageable);
+
+    @RequestMemoized
+    @Query("select new study.datajpa.dto.MemberSnapshot(m.id, m.username, m.age, t.id, m.updateDate)" +
+            " from Member m left join m.team t where m.id = :id")
+    Optional<MemberSnapshot> findSnapshotById(@Param("id") Long id);
+
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    @RequestMemoized
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
@@ -37,16 +54,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     List<Member> findTop3ByAge(int age);
 
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
-
     @Query("select m from Member m join fetch m.team t")
     List<Member> findMembersFetchJoin();
 
     @Override
     @EntityGraph(attributePaths = ("team"))
-    List<Member> findAll();
+    List<Member> findAllById(Iterable<Long> ids);
 
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
@@ -1,9 +1,42 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    Page<MemberProjection> findNativeProjectionRows(Pageable pageable);
+
+    Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * fetch plan 에 필요한 만큼만 조인하고 읽는다. 정렬은 id, username, age 만 허용한다.
+     */
+    Page<MemberView> findPage(MemberFetchPlan plan, Pageable pageable);
+
+    /**
+     * age 이상인 회원의 나이를 1 올린다. 팀 집계도 같은 트랜잭션에서 갱신하고 영속성 컨텍스트를 비운다.
+     */
+    int bulkAgePlus(int age);
+
+    /**
+     * 전체 회원을 forward-only 스크롤로 읽어 chunkSize 단위로 넘긴다.
+     * 청크를 넘긴 뒤 영속성 컨텍스트를 비우므로 전달되는 엔티티는 준영속 상태다.
+     * @return 처리한 회원 수
+     */
+    long forEachChunk(int chunkSize, Consumer<List<Member>> chunkConsumer);
+
+    /**
+     * 청크 처리를 workers 개의 스레드에 나눠 맡긴다. 대기 큐가 가득 차면 스크롤하는 스레드가 직접 처리해
+     * 동시에 메모리에 올라오는 청크 수를 제한한다.
+     */
+    long forEachChunk(int chunkSize, int workers, Consumer<List<Member>> chunkConsumer);
 }
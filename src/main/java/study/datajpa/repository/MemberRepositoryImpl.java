@@ -1,19 +1,318 @@
 package study.datajpa.repository;
 
-import lombok.RequiredArgsConstructor;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.MemberNearCache;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
+import study.datajpa.support.InvalidRequestException;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
+import static org.springframework.util.StringUtils.hasText;
+import static study.datajpa.entity.QMember.member;
+import static study.datajpa.entity.QTeam.team;
+
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final Map<String, String> PROJECTION_SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "teamName", "t.name");
+
+    //search 는 팀을 left join 하므로 teamName 정렬도 받는다.
+    private static final Map<String, ComparableExpressionBase<?>> SEARCH_SORT_KEYS = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamName", team.name);
+
+    //MINIMAL 에서 팀 조인이 생기지 않도록 회원 컬럼만 정렬을 허용한다.
+    private static final Set<String> FETCH_PLAN_SORT_PROPERTIES = Set.of("id", "username", "age");
+
     private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatsRepository teamStatsRepository;
+    private final MemberNearCache memberNearCache;
+
+    public MemberRepositoryImpl(EntityManager em, TeamStatsRepository teamStatsRepository, MemberNearCache memberNearCache) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.teamStatsRepository = teamStatsRepository;
+        this.memberNearCache = memberNearCache;
+    }
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<MemberProjection> findNativeProjectionRows(Pageable pageable) {
+        List<Object[]> tuples = em.createNativeQuery("select m.member_id as id, m.username, t.name as teamName" +
+                        " from member m left join team t on m.team_id = t.team_id" +
+                        orderBy(pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        List<MemberProjection> content = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            content.add(MemberProjectionRow.fromTuple(tuple));
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                ((Number) em.createNativeQuery("select count(*) from member").getSingleResult()).longValue());
+    }
+
+    @Override
+    public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberDto> contentQuery = queryFactory
+                .select(Projections.constructor(MemberDto.class, member.id, member.username, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameStartsWith(condition.getUsername()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        teamNameEq(condition.getTeamName()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        for (Sort.Order order : pageable.getSort()) {
+            ComparableExpressionBase<?> sortKey = SEARCH_SORT_KEYS.get(order.getProperty());
+            if (sortKey == null) {
+                throw new InvalidRequestException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            contentQuery.orderBy(order.isAscending() ? sortKey.asc() : sortKey.desc());
+        }
+        List<MemberDto> content = contentQuery.fetch();
+
+        //팀 이름 조건이 있을 때만 조인한다.
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(usernameStartsWith(condition.getUsername()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+        if (hasText(condition.getTeamName())) {
+            countQuery.join(member.team, team)
+                    .where(teamNameEq(condition.getTeamName()));
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    @Override
+    public Page<MemberView> findPage(MemberFetchPlan plan, Pageable pageable) {
+        List<MemberView> content;
+        switch (plan) {
+            case MINIMAL:
+                content = page(queryFactory.select(member.id, member.username).from(member), pageable)
+                        .fetch().stream()
+                        .map(t -> MemberView.minimal(t.get(member.id), t.get(member.username)))
+                        .collect(Collectors.toList());
+                break;
+            case WITH_TEAM:
+                content = page(queryFactory.select(member.id, member.username, member.age, team.id, team.name)
+                        .from(member)
+                        .leftJoin(member.team, team), pageable)
+                        .fetch().stream()
+                        .map(this::withTeam)
+                        .collect(Collectors.toList());
+                break;
+            default:
+                EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+                graph.addAttributeNodes("team");
+                content = page(queryFactory.selectFrom(member), pageable)
+                        .setHint("javax.persistence.fetchgraph", graph)
+                        .fetch().stream()
+                        .map(MemberView::full)
+                        .collect(Collectors.toList());
+        }
+
+        //마지막 페이지처럼 content 만으로 전체 개수를 알 수 있으면 count 쿼리를 보내지 않는다.
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryFactory.select(member.count()).from(member).fetchOne());
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        teamStatsRepository.applyAgePlus(age);
+        int updated = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear();
+        memberNearCache.invalidateAllOnCommit();
+        return updated;
+    }
+
+    @Override
+    public long forEachChunk(int chunkSize, Consumer<List<Member>> chunkConsumer) {
+        return scroll(chunkSize, chunkConsumer);
+    }
+
+    @Override
+    public long forEachChunk(int chunkSize, int workers, Consumer<List<Member>> chunkConsumer) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), new ThreadPoolExecutor.CallerRunsPolicy());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            long count = scroll(chunkSize, chunk -> {
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+                executor.execute(() -> {
+                    try {
+                        chunkConsumer.accept(chunk);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+            });
+            executor.shutdown();
+            awaitTermination(executor);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return count;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long scroll(int chunkSize, Consumer<List<Member>> chunkConsumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 0보다 커야 합니다: " + chunkSize);
+        }
+        //clear 전에 호출한 쪽의 변경 내용을 반영한다.
+        em.flush();
+
+        long count = 0;
+        ScrollableResults results = em.unwrap(Session.class)
+                .createQuery("select m from Member m", Member.class)
+                .setFetchSize(chunkSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            List<Member> chunk = new ArrayList<>(chunkSize);
+            while (results.next()) {
+                chunk.add((Member) results.get(0));
+                count++;
+                if (chunk.size() == chunkSize) {
+                    em.clear();
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                em.clear();
+                chunkConsumer.accept(chunk);
+            }
+        } finally {
+            results.close();
+        }
+        return count;
+    }
+
+    private void awaitTermination(ThreadPoolExecutor executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("청크 처리 대기 중 인터럽트되었습니다.", e);
+        }
+    }
+
+    private MemberView withTeam(Tuple tuple) {
+        return MemberView.withTeam(tuple.get(member.id), tuple.get(member.username), tuple.get(member.age),
+                tuple.get(team.id), tuple.get(team.name));
+    }
+
+    private <T> JPAQuery<T> page(JPAQuery<T> query, Pageable pageable) {
+        PathBuilder<Member> path = new PathBuilder<>(Member.class, member.getMetadata());
+        for (Sort.Order order : pageable.getSort()) {
+            if (!FETCH_PLAN_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidRequestException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            query.orderBy(new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC,
+                    path.getComparable(order.getProperty(), Comparable.class)));
+        }
+        //같은 값끼리 페이지 경계에서 순서가 바뀌지 않도록 id 를 마지막 정렬 키로 둔다.
+        if (pageable.getSort().getOrderFor("id") == null) {
+            query.orderBy(member.id.asc());
+        }
+        if (pageable.isUnpaged()) {
+            return query;
+        }
+        return query
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+    }
+
+    private BooleanExpression usernameStartsWith(String username) {
+        return hasText(username) ? member.username.startsWith(username) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " order by m.member_id";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            String column = PROJECTION_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidRequestException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            if (orderBy.length() > " order by ".length()) {
+                orderBy.append(", ");
+            }
+            orderBy.append(column).append(order.isAscending() ? " asc" : " desc");
+        }
+        return orderBy.toString();
+    }
 }
@@ -0,0 +1,153 @@
+package study.datajpa.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.MemberWork;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * member_work 를 작업 큐로 쓴다. claim 은 FOR UPDATE SKIP LOCKED 로 다른 워커가 잡고 있는 행을 건너뛰므로
+ * 워커끼리 같은 행을 두고 기다리지 않는다. 행 잠금은 claim 트랜잭션 동안만 걸고, 처리 중인 동안은 lease 로 소유를 표시한다.
+ * 처리하다 죽은 워커의 항목은 lease 가 끝나면 다른 워커가 다시 가져간다.
+ * lease 를 찍을 때와 비교할 때 모두 DB 시계(localtimestamp)를 써서 워커 JVM 끼리 시계가 어긋나도 만료 판단이 같다.
+ */
+@Repository
+@Transactional
+public class MemberWorkRepository {
+
+    public static final int MAX_ATTEMPTS = 5;
+    private static final int CHUNK_SIZE = 1000;
+    //SKIP LOCKED 라 잠금을 기다릴 일은 없다. 이건 claim 문 전체에 거는 JDBC 문장 시간 제한으로, 느린 스캔 등으로
+    //문장이 오래 걸려도 워커가 붙잡혀 있지 않게 한다.
+    private static final int STATEMENT_TIMEOUT_MILLIS = 2000;
+
+    @PersistenceContext EntityManager em;
+
+    /**
+     * 아직 큐에 없는 회원만 넣는다.
+     * @return 새로 넣은 항목 수
+     */
+    public int enqueue(Collection<Long> memberIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(memberIds));
+        int inserted = 0;
+        for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size()));
+            inserted += nativeUpdate("insert into member_work (member_id, done, attempts)" +
+                            " select m.member_id, false, 0 from member m" +
+                            " where m.member_id in (:ids)" +
+                            " and not exists (select 1 from member_work w where w.member_id = m.member_id)")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return inserted;
+    }
+
+    public int enqueueAll() {
+        return nativeUpdate("insert into member_work (member_id, done, attempts)" +
+                        " select m.member_id, false, 0 from member m" +
+                        " where not exists (select 1 from member_work w where w.member_id = m.member_id)")
+                .executeUpdate();
+    }
+
+    /**
+     * 아무도 잡고 있지 않거나 lease 가 끝난 항목을 batchSize 개까지 owner 에게 넘긴다.
+     * MAX_ATTEMPTS 번 가져가고도 끝나지 않은 항목은 더 넘기지 않는다.
+     * @return 넘겨받은 회원 id, 비어 있으면 지금 가져갈 항목이 없다
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> claim(String owner, int batchSize, Duration lease) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 는 0보다 커야 합니다: " + batchSize);
+        }
+        if (lease.isNegative() || lease.isZero()) {
+            throw new IllegalArgumentException("lease 는 0보다 길어야 합니다: " + lease);
+        }
+        List<Number> rows = em.createNativeQuery("select member_id from member_work" +
+                        " where done = false and attempts < :maxAttempts" +
+                        " and (lease_expires_at is null or lease_expires_at < localtimestamp)" +
+                        " order by member_id" +
+                        " fetch first :limit rows only" +
+                        " for update skip locked")
+                .setParameter("maxAttempts", MAX_ATTEMPTS)
+                .setParameter("limit", batchSize)
+                .setHint("javax.persistence.query.timeout", STATEMENT_TIMEOUT_MILLIS)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Number row : rows) {
+            ids.add(row.longValue());
+        }
+        nativeUpdate("update member_work set lease_owner = :owner," +
+                        " lease_expires_at = dateadd(millisecond, :leaseMillis, localtimestamp)," +
+                        " attempts = attempts + 1 where member_id in (:ids)")
+                .setParameter("owner", owner)
+                .setParameter("leaseMillis", lease.toMillis())
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids;
+    }
+
+    /**
+     * owner 가 아직 lease 를 가진 항목만 끝난 것으로 표시한다. lease 가 끝나 다른 워커에게 넘어간 항목은 빠진다.
+     * @return 끝난 것으로 표시한 항목 수
+     */
+    public int complete(String owner, Collection<Long> memberIds) {
+        return updateOwned("update member_work set done = true, lease_owner = null, lease_expires_at = null" +
+                " where member_id in (:ids) and lease_owner = :owner and done = false", owner, memberIds);
+    }
+
+    /**
+     * lease 가 끝나기를 기다리지 않고 바로 다른 워커가 가져갈 수 있게 돌려놓는다.
+     */
+    public int release(String owner, Collection<Long> memberIds) {
+        return updateOwned("update member_work set lease_owner = null, lease_expires_at = null" +
+                " where member_id in (:ids) and lease_owner = :owner and done = false", owner, memberIds);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return ((Number) em.createNativeQuery("select count(*) from member_work where done = false and attempts < :maxAttempts")
+                .setParameter("maxAttempts", MAX_ATTEMPTS)
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * MAX_ATTEMPTS 번 가져가고도 끝나지 않아 더는 넘기지 않는 항목 수. 사람이 보고 다시 넣거나 지워야 한다.
+     */
+    @Transactional(readOnly = true)
+    public long countExhausted() {
+        return ((Number) em.createNativeQuery("select count(*) from member_work where done = false and attempts >= :maxAttempts")
+                .setParameter("maxAttempts", MAX_ATTEMPTS)
+                .getSingleResult()).longValue();
+    }
+
+    private int updateOwned(String sql, String owner, Collection<Long> memberIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(memberIds));
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            updated += nativeUpdate(sql)
+                    .setParameter("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))
+                    .setParameter("owner", owner)
+                    .executeUpdate();
+        }
+        return updated;
+    }
+
+    private NativeQuery<?> nativeUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                //건드리는 테이블을 알려 auto flush 범위를 MemberWork 로 좁힌다.
+                .addSynchronizedEntityClass(MemberWork.class);
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 같은 HTTP 요청 안에서 같은 인자로 다시 부르면, 트랜잭션이 달라도 쿼리 대신 앞의 결과를 돌려준다.
+ * DTO 같은 불변 결과는 그대로, 엔티티 결과(List, Optional, 단건)는 id 만 기억했다가 지금 세션에서 id 로 다시 읽어 돌려준다.
+ * 그 요청에서 쓰기 SQL 이나 flush 가 있으면 결과를 모두 버리고, 세션에 flush 되지 않은 변경이 있으면 쿼리를 다시 실행한다.
+ * 웹 요청 밖에서는 그냥 실행한다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestMemoized {
+}
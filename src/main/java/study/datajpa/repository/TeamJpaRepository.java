@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
@@ -9,14 +10,17 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public class TeamJpaRepository {
     @PersistenceContext EntityManager em;
 
+    @Transactional
     public Team save(Team team) {
         em.persist(team);
         return team;
     }
 
+    @Transactional
     public void delete(Team team) {
         em.remove(team);
     }
@@ -0,0 +1,15 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.TeamMembersDto;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * 팀을 SQL 에서 페이징한 뒤 그 페이지 팀들의 회원만 IN 쿼리 한 번으로 읽어 붙인다.
+     * 컬렉션 fetch join 페이징(HHH000104)처럼 전체 팀을 메모리에 올리지 않는다. 정렬은 id, name 만 허용한다.
+     * 팀마다 회원은 id 순으로 membersLimit(1~100) 명까지만 붙인다.
+     */
+    Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable, int membersLimit);
+}
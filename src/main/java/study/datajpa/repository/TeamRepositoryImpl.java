@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamMembersDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.support.InvalidRequestException;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static study.datajpa.entity.QTeam.team;
+
+@Transactional(readOnly = true)
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "name");
+    private static final int MAX_MEMBERS_LIMIT = 100;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable, int membersLimit) {
+        if (membersLimit < 1 || membersLimit > MAX_MEMBERS_LIMIT) {
+            throw new InvalidRequestException("membersLimit 은 1 이상 " + MAX_MEMBERS_LIMIT + " 이하여야 합니다: " + membersLimit);
+        }
+        //1단계: 팀만 페이징한다.
+        JPAQuery<Tuple> teamQuery = queryFactory
+                .select(team.id, team.name)
+                .from(team);
+        if (pageable.isPaged()) {
+            teamQuery.offset(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        PathBuilder<Team> path = new PathBuilder<>(Team.class, team.getMetadata());
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidRequestException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            teamQuery.orderBy(new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC,
+                    path.getComparable(order.getProperty(), Comparable.class)));
+        }
+        if (pageable.getSort().getOrderFor("id") == null) {
+            teamQuery.orderBy(team.id.asc());
+        }
+
+        Map<Long, TeamMembersDto> teams = new LinkedHashMap<>();
+        for (Tuple tuple : teamQuery.fetch()) {
+            Long teamId = tuple.get(team.id);
+            teams.put(teamId, new TeamMembersDto(teamId, tuple.get(team.name)));
+        }
+
+        //2단계: 페이지에 들어온 팀마다 회원을 id 순으로 membersLimit 명까지만 읽고, 전체 인원은 같은 쿼리의 윈도 집계로 받는다.
+        if (!teams.isEmpty()) {
+            List<Object[]> rows = em.createNativeQuery("select team_id, member_id, username, age, member_count from (" +
+                            " select m.team_id, m.member_id, m.username, m.age," +
+                            "  row_number() over (partition by m.team_id order by m.member_id) rn," +
+                            "  count(*) over (partition by m.team_id) member_count" +
+                            " from member m where m.team_id in (:teamIds)) x" +
+                            " where rn <= :membersLimit order by team_id, member_id")
+                    .setParameter("teamIds", teams.keySet())
+                    .setParameter("membersLimit", membersLimit)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(Member.class)
+                    .getResultList();
+            for (Object[] row : rows) {
+                TeamMembersDto dto = teams.get(((Number) row[0]).longValue());
+                dto.setMemberCount(((Number) row[4]).longValue());
+                dto.getMembers().add(new TeamMembersDto.MemberItem(
+                        ((Number) row[1]).longValue(), (String) row[2], ((Number) row[3]).intValue()));
+            }
+        }
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(team.count())
+                .from(team);
+        return PageableExecutionUtils.getPage(List.copyOf(teams.values()), pageable, countQuery::fetchOne);
+    }
+}
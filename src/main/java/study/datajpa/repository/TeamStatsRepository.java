@@ -0,0 +1,191 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamStatsDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class TeamStatsRepository {
+
+    @PersistenceContext EntityManager em;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * 집계는 쿼리로 읽기만 한다. 경계값이 오래됐으면 member 에서 최소/최대를 구해 응답에만 쓴다.
+     */
+    @Transactional(readOnly = true)
+    public Optional<TeamStatsDto> findStats(Long teamId) {
+        List<Object[]> rows = em.createQuery("select t.id, t.name, s.memberCount, s.ageSum, s.minAge, s.maxAge, s.boundsStale" +
+                        " from Team t left join TeamStats s on s.teamId = t.id where t.id = :teamId", Object[].class)
+                .setParameter("teamId", teamId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        long memberCount = row[2] == null ? 0 : ((Number) row[2]).longValue();
+        long ageSum = row[3] == null ? 0 : ((Number) row[3]).longValue();
+        Integer minAge = toInteger(row[4]);
+        Integer maxAge = toInteger(row[5]);
+        if (row[2] == null || Boolean.TRUE.equals(row[6])) {
+            Object[] bounds = em.createQuery("select min(m.age), max(m.age) from Member m where m.team.id = :teamId", Object[].class)
+                    .setParameter("teamId", teamId)
+                    .getSingleResult();
+            minAge = toInteger(bounds[0]);
+            maxAge = toInteger(bounds[1]);
+        }
+        return Optional.of(new TeamStatsDto((Long) row[0], (String) row[1], memberCount,
+                memberCount == 0 ? null : (double) ageSum / memberCount, minAge, maxAge));
+    }
+
+    /**
+     * 새 팀의 빈 집계 행을 만든다.
+     */
+    public int create(Long teamId) {
+        return jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, bounds_stale)" +
+                " values (:teamId, 0, 0, false)", new MapSqlParameterSource("teamId", teamId));
+    }
+
+    public int delete(Long teamId) {
+        return jdbcTemplate.update("delete from team_stats where team_id = :teamId", new MapSqlParameterSource("teamId", teamId));
+    }
+
+    /**
+     * 회원 한 명이 팀에 들어온 만큼 더한다. 비어 있던 팀이면 경계값을 그 나이로 시작한다.
+     */
+    public int join(Long teamId, int age) {
+        return jdbcTemplate.update("update team_stats set" +
+                " member_count = member_count + 1," +
+                " age_sum = age_sum + :age," +
+                " min_age = case when member_count = 0 or min_age is null or :age < min_age then :age else min_age end," +
+                " max_age = case when member_count = 0 or max_age is null or :age > max_age then :age else max_age end" +
+                " where team_id = :teamId", params(teamId, age));
+    }
+
+    /**
+     * 회원 한 명이 팀을 떠난 만큼 뺀다. 인원이 0 이거나 집계 행이 없으면 건드리지 않고 정합성 작업에 맡긴다.
+     */
+    public int leave(Long teamId, int age) {
+        return jdbcTemplate.update("update team_stats set" +
+                " member_count = member_count - 1," +
+                " age_sum = case when member_count = 1 then 0 else age_sum - :age end," +
+                " min_age = case when member_count = 1 then null else min_age end," +
+                " max_age = case when member_count = 1 then null else max_age end," +
+                " bounds_stale = case when member_count = 1 then false" +
+                "   when :age <= min_age or :age >= max_age then true else bounds_stale end" +
+                " where team_id = :teamId and member_count > 0", params(teamId, age));
+    }
+
+    public int changeAge(Long teamId, int from, int to) {
+        return jdbcTemplate.update("update team_stats set" +
+                " age_sum = age_sum + :delta," +
+                " bounds_stale = case when :from <= min_age or :from >= max_age then true else bounds_stale end," +
+                " min_age = case when min_age is null or :to < min_age then :to else min_age end," +
+                " max_age = case when max_age is null or :to > max_age then :to else max_age end" +
+                " where team_id = :teamId and member_count > 0", new MapSqlParameterSource()
+                .addValue("teamId", teamId)
+                .addValue("delta", to - from)
+                .addValue("from", from)
+                .addValue("to", to));
+    }
+
+    /**
+     * age 이상인 회원의 나이를 1 올리는 벌크 업데이트 직전에 호출한다.
+     */
+    public int applyAgePlus(int age) {
+        em.flush();
+        return em.createNativeQuery("update team_stats s set" +
+                        " age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and m.age >= :age)," +
+                        " min_age = case when min_age >= :age then min_age + 1 else min_age end," +
+                        " max_age = case when max_age >= :age then max_age + 1 else max_age end" +
+                        " where s.member_count > 0")
+                .setParameter("age", age)
+                .executeUpdate();
+    }
+
+    /**
+     * 전체 회원의 나이를 1 올리는 벌크 업데이트 직전에 호출한다.
+     */
+    public int applyAgePlusAll() {
+        em.flush();
+        return em.createNativeQuery("update team_stats set" +
+                        " age_sum = age_sum + member_count, min_age = min_age + 1, max_age = max_age + 1" +
+                        " where member_count > 0")
+                .executeUpdate();
+    }
+
+    /**
+     * 회원을 벌크로 지운 뒤 해당 팀들의 인원과 나이 합을 member 테이블로 다시 계산한다. 최소/최대는 조회 시 다시 구한다.
+     */
+    public int recalculate(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return 0;
+        }
+        return em.createNativeQuery("update team_stats s set" +
+                        " member_count = (select count(*) from member m where m.team_id = s.team_id)," +
+                        " age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = s.team_id)," +
+                        " bounds_stale = true" +
+                        " where s.team_id in (:teamIds)")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+    }
+
+    /**
+     * member 테이블로 집계를 다시 계산해 어긋난 팀을 고친다.
+     * @return 고친 팀 수
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public int reconcile() {
+        em.flush();
+        List<Object[]> drifted = em.createNativeQuery("select t.team_id, coalesce(a.cnt, 0), coalesce(a.age_sum, 0), a.min_age, a.max_age" +
+                        " from team t" +
+                        " left join (select team_id, count(*) cnt, sum(age) age_sum, min(age) min_age, max(age) max_age" +
+                        "   from member where team_id is not null group by team_id) a on a.team_id = t.team_id" +
+                        " left join team_stats s on s.team_id = t.team_id" +
+                        " where s.team_id is null" +
+                        " or s.bounds_stale = true" +
+                        " or s.member_count <> coalesce(a.cnt, 0)" +
+                        " or s.age_sum <> coalesce(a.age_sum, 0)" +
+                        " or s.min_age is distinct from a.min_age" +
+                        " or s.max_age is distinct from a.max_age")
+                .getResultList();
+
+        for (Object[] row : drifted) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("teamId", ((Number) row[0]).longValue())
+                    .addValue("memberCount", ((Number) row[1]).longValue())
+                    .addValue("ageSum", ((Number) row[2]).longValue())
+                    .addValue("minAge", toInteger(row[3]))
+                    .addValue("maxAge", toInteger(row[4]));
+            int updated = jdbcTemplate.update("update team_stats set member_count = :memberCount, age_sum = :ageSum," +
+                    " min_age = :minAge, max_age = :maxAge, bounds_stale = false where team_id = :teamId", params);
+            if (updated == 0) {
+                jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum, min_age, max_age, bounds_stale)" +
+                        " values (:teamId, :memberCount, :ageSum, :minAge, :maxAge, false)", params);
+            }
+        }
+        return drifted.size();
+    }
+
+    private static MapSqlParameterSource params(Long teamId, int age) {
+        return new MapSqlParameterSource()
+                .addValue("teamId", teamId)
+                .addValue("age", age);
+    }
+
+    private Integer toInteger(Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+}
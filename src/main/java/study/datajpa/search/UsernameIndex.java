@@ -0,0 +1,301 @@
+package study.datajpa.search;
+
+import org.springframework.stereotype.Component;
+import study.datajpa.support.LongHashMap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 회원 이름의 3-gram 역색인. 이름 앞에 시작 표시 두 글자를 붙여 색인하므로 1~2 글자 검색은 앞부분 일치로,
+ * 3 글자 이상은 부분 문자열 일치로 찾는다.
+ *
+ * <ul>
+ *     <li>3-gram 은 char 3개를 long 하나로 묶어 키로 쓰고, 회원 id 목록은 정렬된 long[] 로 들고 있는다.</li>
+ *     <li>이름은 소문자로 바꿔 intern 하므로 같은 이름은 한 번만 저장된다.</li>
+ *     <li>결과 순서: 이름 전체 일치, 앞부분 일치, 부분 일치 순으로, 같으면 짧은 이름, 작은 id 순.</li>
+ * </ul>
+ */
+@Component
+public class UsernameIndex {
+
+    private static final char START = '\u0001';
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongHashMap<String> usernames = new LongHashMap<>(1024);
+    private final LongHashMap<Postings> postings = new LongHashMap<>(4096);
+    //적재 중에 put/remove 로 바뀐 회원 id. 적재 중이 아니면 null
+    private Set<Long> changedWhileLoading;
+
+    public void put(long memberId, String username) {
+        String normalized = normalize(username);
+        lock.writeLock().lock();
+        try {
+            markChanged(memberId);
+            putLocked(memberId, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 적재를 시작한다. 이후 {@link #endLoad()} 까지 put/remove 된 회원은 {@link #load} 가 건너뛴다.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * DB 에서 읽은 값으로 색인한다. 읽은 뒤에 리스너가 반영한 더 새 값은 덮어쓰지 않는다.
+     */
+    public void load(long memberId, String username) {
+        String normalized = normalize(username);
+        lock.writeLock().lock();
+        try {
+            if (changedWhileLoading != null && changedWhileLoading.contains(memberId)) {
+                return;
+            }
+            putLocked(memberId, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            changedWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long memberId) {
+        lock.writeLock().lock();
+        try {
+            markChanged(memberId);
+            String previous = usernames.remove(memberId);
+            if (previous != null) {
+                removeGrams(memberId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            usernames.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return usernames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 순위 순으로 정렬한 회원 id. 최대 limit 개
+     */
+    public long[] search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+        boolean prefixOnly = q.length() < 3;
+        //짧은 검색어는 시작 표시를 붙인 마지막 gram 하나가 곧 앞부분 일치 조건이다.
+        long[] queryGrams = prefixOnly ? new long[]{indexGrams(q)[q.length() - 1]} : grams(q);
+
+        lock.readLock().lock();
+        try {
+            //가장 짧은 목록부터 교집합을 구한다.
+            Postings[] lists = new Postings[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = postings.get(queryGrams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+            //짧은 검색어는 목록 전체가 후보가 되므로 전부 정렬하지 않고 상위 limit 개만 힙에 남긴다. 맨 위가 가장 뒤 순위다.
+            Postings smallest = lists[0];
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(limit, smallest.size)), Hit.ORDER.reversed());
+            for (int i = 0; i < smallest.size; i++) {
+                long id = smallest.ids[i];
+                if (!containsAll(lists, id)) {
+                    continue;
+                }
+                //3-gram 이 모두 있어도 연속해서 나오지 않을 수 있으므로 실제 이름으로 확인한다.
+                String username = usernames.get(id);
+                int rank = rank(username, q, prefixOnly);
+                if (rank < 0) {
+                    continue;
+                }
+                Hit hit = new Hit(id, rank, username.length());
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (Hit.ORDER.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            long[] result = new long[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = top.poll().id;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markChanged(long memberId) {
+        if (changedWhileLoading != null) {
+            changedWhileLoading.add(memberId);
+        }
+    }
+
+    private void putLocked(long memberId, String normalized) {
+        String previous = usernames.get(memberId);
+        if (normalized.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeGrams(memberId, previous);
+        }
+        if (normalized.isEmpty()) {
+            usernames.remove(memberId);
+            return;
+        }
+        usernames.put(memberId, normalized);
+        for (long gram : indexGrams(normalized)) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                ids = new Postings();
+                postings.put(gram, ids);
+            }
+            ids.add(memberId);
+        }
+    }
+
+    private void removeGrams(long memberId, String username) {
+        for (long gram : indexGrams(username)) {
+            Postings ids = postings.get(gram);
+            if (ids != null && ids.remove(memberId) && ids.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static boolean containsAll(Postings[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int rank(String username, String q, boolean prefixOnly) {
+        if (username.equals(q)) {
+            return 0;
+        }
+        if (username.startsWith(q)) {
+            return 1;
+        }
+        return !prefixOnly && username.contains(q) ? 2 : -1;
+    }
+
+    private static long[] indexGrams(String username) {
+        return grams(String.valueOf(START) + START + username);
+    }
+
+    //중복 gram 은 한 번만 돌려준다.
+    private static long[] grams(String text) {
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = pack(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static long pack(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT).intern();
+    }
+
+    /**
+     * 정렬된 회원 id 목록.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    private static final class Hit {
+        static final Comparator<Hit> ORDER = Comparator.<Hit>comparingInt(h -> h.rank)
+                .thenComparingInt(h -> h.length)
+                .thenComparingLong(h -> h.id);
+
+        final long id;
+        final int rank;
+        final int length;
+
+        Hit(long id, int rank, int length) {
+            this.id = id;
+            this.rank = rank;
+            this.length = length;
+        }
+    }
+}
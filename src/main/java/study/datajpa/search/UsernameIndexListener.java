@@ -0,0 +1,36 @@
+package study.datajpa.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import static study.datajpa.support.TransactionCallbacks.afterCommit;
+
+/**
+ * Member 엔티티 리스너. 스프링 빈으로 등록돼 있어 Hibernate 가 이 빈을 그대로 쓴다.
+ * 롤백된 변경이 색인에 남지 않도록 커밋 후에 반영한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernameIndexListener {
+
+    private final UsernameIndex usernameIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void index(Member member) {
+        long id = member.getId();
+        String username = member.getUsername();
+        afterCommit(() -> usernameIndex.put(id, username));
+    }
+
+    @PostRemove
+    public void remove(Member member) {
+        long id = member.getId();
+        afterCommit(() -> usernameIndex.remove(id));
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 기동 시 회원 전체를 청크 단위로 스크롤하며 이름 색인을 채운다.
+ * 웹 서버(phase Integer.MAX_VALUE - 1)보다 먼저 시작하므로 요청을 받을 때는 색인이 다 차 있다.
+ * 적재 도중 리스너가 반영한 회원은 더 새 값이므로 적재가 덮어쓰지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameIndexLoader implements SmartLifecycle {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int PHASE = Integer.MAX_VALUE - 2;
+
+    private final MemberRepository memberRepository;
+    private final UsernameIndex usernameIndex;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        load();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public void load() {
+        long start = System.currentTimeMillis();
+        usernameIndex.beginLoad();
+        try {
+            long count = memberRepository.forEachChunk(CHUNK_SIZE, chunk -> {
+                for (Member member : chunk) {
+                    usernameIndex.load(member.getId(), member.getUsername());
+                }
+            });
+            log.info("회원 이름 색인 완료: {}명, {}ms", count, System.currentTimeMillis() - start);
+        } finally {
+            usernameIndex.endLoad();
+        }
+    }
+}
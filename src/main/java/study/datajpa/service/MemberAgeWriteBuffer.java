@@ -0,0 +1,209 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.cache.MemberNearCache;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 나이 증감을 메모리에서 회원별로 합쳐 두었다가 한 번의 배치 UPDATE 로 반영한다.
+ * 같은 회원에 대한 이벤트가 많을수록 select/dirty checking/update 를 여러 번 하는 비용이 줄어든다.
+ *
+ * <ul>
+ *     <li>max-staleness-ms 마다 주기적으로, 대기 중인 회원 수가 max-pending 을 넘으면 즉시 비동기로 flush 한다.</li>
+ *     <li>flush-on-shutdown 이 켜져 있으면 종료 시 남은 값을 모두 반영한다.</li>
+ *     <li>JDBC 로 직접 반영하므로 이미 열려 있는 영속성 컨텍스트의 회원 나이는 갱신되지 않는다. 회원 캐시는 반영 후 지운다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberAgeWriteBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberNearCache memberNearCache;
+
+    @Value("${member-age-buffer.max-pending:10000}")
+    private long maxPending;
+
+    @Value("${member-age-buffer.flush-on-shutdown:true}")
+    private boolean flushOnShutdown;
+
+    private final ConcurrentHashMap<Long, Delta> deltas = new ConcurrentHashMap<>();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "member-age-buffer-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private volatile long lastFlushLagNanos;
+    private volatile long maxFlushLagNanos;
+    private volatile long lastFlushDurationNanos;
+
+    public void add(long memberId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        //flush 가 막 정리한 항목을 잡았으면 새 항목으로 다시 시도한다.
+        Delta current;
+        do {
+            current = deltas.computeIfAbsent(memberId, id -> new Delta());
+        } while (!current.add(delta));
+        if (deltas.mappingCount() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    public long getPendingCount() {
+        return deltas.mappingCount();
+    }
+
+    @Scheduled(fixedDelayString = "${member-age-buffer.max-staleness-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("회원 나이 버퍼 반영에 실패했습니다. 다음 주기에 다시 시도합니다.", e);
+        }
+    }
+
+    /**
+     * 지금까지 쌓인 증감을 반영한다. 실패하면 꺼낸 값을 버퍼에 되돌려 놓는다.
+     * @return 반영한 회원 수
+     */
+    public synchronized int flush() {
+        long start = System.nanoTime();
+        long oldestPendingSince = start;
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, Delta> entry : deltas.entrySet()) {
+            Delta delta = entry.getValue();
+            long pendingSince = delta.pendingSince;
+            long value = delta.drain();
+            if (value != 0) {
+                batch.add(new Object[]{value, entry.getKey()});
+                oldestPendingSince = Math.min(oldestPendingSince, pendingSince);
+            } else if (delta.retireIfIdle()) {
+                deltas.remove(entry.getKey(), delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("update team_stats set age_sum = age_sum + ?, bounds_stale = true" +
+                        " where team_id = (select m.team_id from member m where m.member_id = ?)", batch);
+                jdbcTemplate.batchUpdate("update member set age = age + ? where member_id = ?", batch);
+            });
+        } catch (RuntimeException e) {
+            for (Object[] row : batch) {
+                add((Long) row[1], (Long) row[0]);
+            }
+            throw e;
+        }
+        for (Object[] row : batch) {
+            memberNearCache.invalidate((Long) row[1]);
+        }
+
+        long end = System.nanoTime();
+        flushCount.incrementAndGet();
+        flushedRows.addAndGet(batch.size());
+        lastFlushLagNanos = end - oldestPendingSince;
+        maxFlushLagNanos = Math.max(maxFlushLagNanos, lastFlushLagNanos);
+        lastFlushDurationNanos = end - start;
+        return batch.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(deltas.mappingCount(), flushCount.get(), flushedRows.get(),
+                lastFlushLagNanos, maxFlushLagNanos, lastFlushDurationNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        if (flushOnShutdown) {
+            flush();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stats {
+        private final long pending;
+        private final long flushCount;
+        private final long flushedRows;
+        /** 가장 오래 기다린 증감이 반영되기까지 걸린 시간 */
+        private final long lastFlushLagNanos;
+        private final long maxFlushLagNanos;
+        private final long lastFlushDurationNanos;
+    }
+
+    /**
+     * 회원 한 명의 누적 증감. flush 가 0 인 항목을 RETIRED 로 바꾼 뒤에 맵에서 빼므로
+     * 빠지는 항목에 더해진 값이 사라지지 않는다.
+     */
+    private static final class Delta {
+        private static final long RETIRED = Long.MIN_VALUE;
+
+        private final AtomicLong value = new AtomicLong();
+        private volatile long pendingSince;
+
+        boolean add(long delta) {
+            for (;;) {
+                long current = value.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (value.compareAndSet(current, current + delta)) {
+                    if (current == 0) {
+                        pendingSince = System.nanoTime();
+                    }
+                    return true;
+                }
+            }
+        }
+
+        long drain() {
+            for (;;) {
+                long current = value.get();
+                if (current == RETIRED) {
+                    return 0;
+                }
+                if (value.compareAndSet(current, 0)) {
+                    return current;
+                }
+            }
+        }
+
+        boolean retireIfIdle() {
+            return value.compareAndSet(0, RETIRED);
+        }
+    }
+}
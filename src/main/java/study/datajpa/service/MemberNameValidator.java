@@ -0,0 +1,33 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.InvalidRequestException;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 요청에 들어온 회원 이름이 모두 있는지 확인한다. 같은 요청에서 뒤따라 같은 이름으로 읽는 조회는 요청 메모로 처리된다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberNameValidator {
+
+    private final MemberRepository memberRepository;
+
+    public void requireExisting(Collection<String> usernames) {
+        Set<String> missing = new LinkedHashSet<>(usernames);
+        for (Member member : memberRepository.findByNames(usernames)) {
+            missing.remove(member.getUsername());
+        }
+        if (!missing.isEmpty()) {
+            throw new InvalidRequestException("없는 회원 이름입니다: " + missing);
+        }
+    }
+}
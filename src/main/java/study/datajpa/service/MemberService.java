@@ -0,0 +1,153 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.MemberNearCache;
+import study.datajpa.dto.CompactMemberPage;
+import study.datajpa.dto.MemberBatchDto;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.dto.MemberView;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberArchiveRepository;
+import study.datajpa.repository.MemberFetchPlan;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.search.UsernameIndex;
+import study.datajpa.support.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * OSIV 를 끈 상태에서 컨트롤러가 쓰는 조회 계층. 응답에 필요한 연관관계는 리파지토리의 fetch plan 으로
+ * 트랜잭션 안에서 모두 읽고 DTO 로 바꿔 돌려준다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberService {
+
+    public static final int MAX_BATCH_IDS = 1000;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    private static final int IN_BATCH_SIZE = 100;
+
+    private final MemberRepository memberRepository;
+    private final UsernameIndex usernameIndex;
+    private final MemberNearCache memberNearCache;
+    private final MemberArchiveRepository memberArchiveRepository;
+    private final MemberNameValidator memberNameValidator;
+
+    /**
+     * 캐시에 있으면 트랜잭션도 커넥션도 쓰지 않는다. 없을 때만 리파지토리가 읽기 전용 트랜잭션으로 읽어 온다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<MemberSnapshot> findSnapshot(long id) {
+        return Optional.ofNullable(memberNearCache.get(id, key -> memberRepository.findSnapshotById(key).orElse(null)));
+    }
+
+    /**
+     * includeArchive 가 켜져 있고 member 에 없으면 member_archive 에서 찾는다. 보관된 회원은 캐시하지 않는다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<MemberSnapshot> findSnapshot(long id, boolean includeArchive) {
+        Optional<MemberSnapshot> snapshot = findSnapshot(id);
+        if (snapshot.isPresent() || !includeArchive) {
+            return snapshot;
+        }
+        return memberArchiveRepository.findArchivedSnapshotById(id);
+    }
+
+    public List<MemberSnapshot> findByUsername(String username, boolean includeArchive) {
+        return memberArchiveRepository.findByUsername(username, includeArchive);
+    }
+
+    public Page<MemberDto> findMembers(Pageable pageable) {
+        return memberRepository.findWithTeamBy(pageable)
+                .map(MemberDto::new);
+    }
+
+    public Page<MemberView> findMembers(MemberFetchPlan plan, Pageable pageable) {
+        return memberRepository.findPage(plan, pageable);
+    }
+
+    /**
+     * count 쿼리 없이 한 건 더 읽어 다음 페이지 여부만 판단한다.
+     */
+    public CompactMemberPage findMembersCompact(Pageable pageable) {
+        return new CompactMemberPage(memberRepository.findSliceWithTeamBy(pageable)
+                .map(MemberDto::new));
+    }
+
+    /**
+     * 요청한 순서대로 회원을 돌려주고 없는 id 는 따로 알려준다. IN 절은 IN_BATCH_SIZE 개씩 끊어서 조회한다.
+     */
+    public MemberBatchDto findMembersByIds(List<Long> ids) {
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new InvalidRequestException("한 번에 조회할 수 있는 회원은 " + MAX_BATCH_IDS + "명까지입니다.");
+        }
+
+        Map<Long, Member> found = new HashMap<>();
+        List<Long> chunk = new ArrayList<>(IN_BATCH_SIZE);
+        for (Long id : distinctIds) {
+            chunk.add(id);
+            if (chunk.size() == IN_BATCH_SIZE) {
+                memberRepository.findAllById(chunk).forEach(m -> found.put(m.getId(), m));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            memberRepository.findAllById(chunk).forEach(m -> found.put(m.getId(), m));
+        }
+
+        List<MemberDto> members = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Member member = found.get(id);
+            if (member == null) {
+                missingIds.add(id);
+            } else {
+                members.add(new MemberDto(member));
+            }
+        }
+        return new MemberBatchDto(members, missingIds);
+    }
+
+    /**
+     * 이름 색인에서 순위대로 id 를 찾은 뒤 한 번에 읽는다. 색인보다 먼저 지워진 회원은 빠진다.
+     */
+    public List<MemberDto> searchByUsername(String query, int limit) {
+        if (limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("limit 은 1 ~ " + MAX_SEARCH_RESULTS + " 사이여야 합니다: " + limit);
+        }
+        long[] ids = usernameIndex.search(query, limit);
+        List<Long> rankedIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            rankedIds.add(id);
+        }
+        return findMembersByIds(rankedIds).getMembers();
+    }
+
+    /**
+     * 이름이 모두 있는지 확인한 뒤 같은 조건으로 읽는다. 두 번째 findByNames 는 요청 메모에서 id 를 받아 영속성 컨텍스트에서 꺼내므로 쿼리가 나가지 않는다.
+     */
+    public List<MemberDto> findByUsernames(List<String> usernames) {
+        if (usernames.size() > MAX_BATCH_IDS) {
+            throw new InvalidRequestException("한 번에 조회할 수 있는 회원은 " + MAX_BATCH_IDS + "명까지입니다.");
+        }
+        memberNameValidator.requireExisting(usernames);
+        List<MemberDto> members = new ArrayList<>();
+        for (Member member : memberRepository.findByNames(usernames)) {
+            members.add(new MemberDto(member));
+        }
+        return members;
+    }
+}
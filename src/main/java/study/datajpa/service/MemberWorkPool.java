@@ -0,0 +1,103 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.MemberWorkRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * workers 개의 스레드가 각자 claim → 처리 → complete 를 반복해 member_work 를 비운다.
+ * claim 이 빈 목록을 돌려주면 그 워커는 끝난다. 처리에 실패한 묶음은 complete 하지 않고 두어 lease 가 끝난 뒤 다시 처리되게 한다.
+ * processor 는 claim 트랜잭션 밖에서 호출되므로 필요하면 직접 트랜잭션을 연다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberWorkPool {
+
+    private final MemberWorkRepository memberWorkRepository;
+
+    public Result drain(int workers, int batchSize, Duration lease, Consumer<List<Long>> processor) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers 는 0보다 커야 합니다: " + workers);
+        }
+        long start = System.nanoTime();
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "member-work-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                String owner = runId + "-" + i;
+                futures.add(executor.submit(() -> {
+                    List<Long> ids;
+                    while (!(ids = memberWorkRepository.claim(owner, batchSize, lease)).isEmpty()) {
+                        batches.incrementAndGet();
+                        try {
+                            processor.accept(ids);
+                        } catch (RuntimeException e) {
+                            log.warn("회원 작업 처리에 실패했습니다. lease 가 끝나면 다시 처리합니다. owner={}, size={}", owner, ids.size(), e);
+                            failed.addAndGet(ids.size());
+                            continue;
+                        }
+                        completed.addAndGet(memberWorkRepository.complete(owner, ids));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long exhausted = memberWorkRepository.countExhausted();
+        if (exhausted > 0) {
+            log.warn("MAX_ATTEMPTS({}) 번 실패해 더 처리하지 않는 회원 작업이 {}건 있습니다.", MemberWorkRepository.MAX_ATTEMPTS, exhausted);
+        }
+        return new Result(completed.get(), failed.get(), exhausted, batches.get(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("회원 작업 대기 중 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("회원 작업 워커가 실패했습니다.", e.getCause());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final long completed;
+        /** 처리 중 예외가 나서 lease 가 끝나기를 기다리는 항목 수 */
+        private final long failed;
+        /** MAX_ATTEMPTS 번 실패해 더는 claim 되지 않는 항목 수(이번 실행분만이 아니라 큐 전체) */
+        private final long exhausted;
+        private final long batches;
+        private final long elapsedMillis;
+    }
+}
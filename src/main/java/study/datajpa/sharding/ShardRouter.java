@@ -0,0 +1,26 @@
+package study.datajpa.sharding;
+
+/**
+ * team_id 로 샤드를 고른다. 연속된 team_id 가 한 샤드에 몰리지 않도록 섞은 뒤 나눈다.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount <= 0 || shardCount > ShardedIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("샤드 수는 1 ~ " + ShardedIdGenerator.MAX_SHARDS + " 사이여야 합니다: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardForTeam(long teamId) {
+        long h = teamId * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        return (int) Math.floorMod(h, (long) shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
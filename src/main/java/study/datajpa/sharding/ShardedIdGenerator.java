@@ -0,0 +1,72 @@
+package study.datajpa.sharding;
+
+/**
+ * 샤드 번호를 품은 64bit id. [41bit 밀리초 | 6bit 샤드 | 6bit 워커 | 10bit 시퀀스]
+ * id 만으로 샤드를 알 수 있어서 id 조회는 한 샤드로만 간다. 워커 번호는 같은 샤드에 id 를 발급하는
+ * 애플리케이션 인스턴스마다 달라야 하며(sharding.worker-id), 그래야 같은 밀리초에도 id 가 겹치지 않는다.
+ */
+public class ShardedIdGenerator {
+
+    public static final int MAX_SHARDS = 1 << 6;
+    public static final int MAX_WORKERS = 1 << 6;
+
+    private static final long EPOCH = 1_640_995_200_000L; //2022-01-01T00:00:00Z
+    private static final int SEQUENCE_BITS = 10;
+    private static final int WORKER_BITS = 6;
+    private static final int SHARD_BITS = 6;
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = SEQUENCE_BITS + WORKER_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS + SHARD_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long shard;
+    private final long worker;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ShardedIdGenerator(int shard, int worker) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("샤드 번호는 0 ~ " + (MAX_SHARDS - 1) + " 사이여야 합니다: " + shard);
+        }
+        if (worker < 0 || worker >= MAX_WORKERS) {
+            throw new IllegalArgumentException("워커 번호는 0 ~ " + (MAX_WORKERS - 1) + " 사이여야 합니다: " + worker);
+        }
+        this.shard = shard;
+        this.worker = worker;
+    }
+
+    public static int shardOf(long id) {
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+
+    public static int workerOf(long id) {
+        return (int) ((id >>> WORKER_SHIFT) & (MAX_WORKERS - 1));
+    }
+
+    public synchronized long nextId() {
+        long now = System.currentTimeMillis();
+        if (now < lastMillis) {
+            //시계가 뒤로 가면 마지막 시각을 계속 쓴다.
+            now = lastMillis;
+        }
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = waitNextMillis(lastMillis);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << TIMESTAMP_SHIFT) | (shard << SHARD_SHIFT) | (worker << WORKER_SHIFT) | sequence;
+    }
+
+    private long waitNextMillis(long lastMillis) {
+        long now = System.currentTimeMillis();
+        while (now <= lastMillis) {
+            Thread.onSpinWait();
+            now = System.currentTimeMillis();
+        }
+        return now;
+    }
+}
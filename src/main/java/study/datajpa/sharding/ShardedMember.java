@@ -0,0 +1,12 @@
+package study.datajpa.sharding;
+
+import lombok.Value;
+
+@Value
+public class ShardedMember {
+
+    long id;
+    String username;
+    int age;
+    long teamId;
+}
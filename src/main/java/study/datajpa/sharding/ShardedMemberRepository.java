@@ -0,0 +1,231 @@
+package study.datajpa.sharding;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * team_id 기준으로 여러 데이터소스에 회원을 나눠 저장한다.
+ * 한 팀 또는 id 하나로 끝나는 작업은 한 샤드로만 보내고, 전체 조회는 모든 샤드에 동시에 보낸 뒤
+ * 정렬 키로 k-way merge 한다.
+ */
+public class ShardedMemberRepository implements Closeable {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "member_id",
+            "username", "username",
+            "age", "age",
+            "teamId", "team_id");
+
+    private static final RowMapper<ShardedMember> ROW_MAPPER = (rs, rowNum) -> new ShardedMember(
+            rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"), rs.getLong("team_id"));
+
+    private final List<DataSource> dataSources;
+    private final List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+    private final List<ShardedIdGenerator> idGenerators = new ArrayList<>();
+    private final ShardRouter router;
+    private final ExecutorService scatterExecutor;
+
+    /**
+     * @param workerId 이 인스턴스의 워커 번호. 같은 샤드들에 쓰는 인스턴스끼리 겹치면 id 가 충돌한다.
+     */
+    public ShardedMemberRepository(List<DataSource> dataSources, int workerId) {
+        this.dataSources = List.copyOf(dataSources);
+        this.router = new ShardRouter(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            shards.add(new NamedParameterJdbcTemplate(dataSources.get(i)));
+            idGenerators.add(new ShardedIdGenerator(i, workerId));
+        }
+        this.scatterExecutor = Executors.newFixedThreadPool(dataSources.size(), r -> {
+            Thread thread = new Thread(r, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void initSchema() {
+        for (NamedParameterJdbcTemplate shard : shards) {
+            JdbcTemplate jdbc = shard.getJdbcTemplate();
+            jdbc.execute("create table if not exists member (" +
+                    " member_id bigint primary key," +
+                    " username varchar(255)," +
+                    " age integer not null," +
+                    " team_id bigint not null)");
+            jdbc.execute("create index if not exists idx_member_team on member (team_id)");
+            jdbc.execute("create index if not exists idx_member_username on member (username)");
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public ShardedMember save(String username, int age, long teamId) {
+        int shard = router.shardForTeam(teamId);
+        ShardedMember member = new ShardedMember(idGenerators.get(shard).nextId(), username, age, teamId);
+        shards.get(shard).update("insert into member (member_id, username, age, team_id) values (:id, :username, :age, :teamId)",
+                new MapSqlParameterSource()
+                        .addValue("id", member.getId())
+                        .addValue("username", member.getUsername())
+                        .addValue("age", member.getAge())
+                        .addValue("teamId", member.getTeamId()));
+        return member;
+    }
+
+    public Optional<ShardedMember> findById(long id) {
+        int shard = ShardedIdGenerator.shardOf(id);
+        if (shard >= shards.size()) {
+            return Optional.empty();
+        }
+        return shards.get(shard).query("select * from member where member_id = :id",
+                        new MapSqlParameterSource("id", id), ROW_MAPPER)
+                .stream().findFirst();
+    }
+
+    public List<ShardedMember> findByTeamId(long teamId) {
+        return shards.get(router.shardForTeam(teamId)).query("select * from member where team_id = :teamId order by member_id",
+                new MapSqlParameterSource("teamId", teamId), ROW_MAPPER);
+    }
+
+    public int deleteByTeamId(long teamId) {
+        return shards.get(router.shardForTeam(teamId)).update("delete from member where team_id = :teamId",
+                new MapSqlParameterSource("teamId", teamId));
+    }
+
+    public List<ShardedMember> findByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Sort sort = Sort.by("username");
+        String sql = "select * from member where username in (:names)" + orderBy(sort);
+        List<List<ShardedMember>> results = scatter(shard -> shard.query(sql,
+                new MapSqlParameterSource("names", names), ROW_MAPPER));
+        return merge(results, comparator(sort), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 각 샤드에서 offset + size 개까지 정렬해 읽은 뒤 합친다. 깊은 페이지일수록 샤드마다 읽는 양이 늘어난다.
+     */
+    public Page<ShardedMember> findAll(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        String sql = "select * from member" + orderBy(sort) + " limit :limit";
+        Comparator<ShardedMember> comparator = comparator(sort);
+        List<List<ShardedMember>> results = scatter(shard -> shard.query(sql,
+                new MapSqlParameterSource("limit", limit), ROW_MAPPER));
+        List<Long> counts = scatter(shard -> shard.getJdbcTemplate().queryForObject("select count(*) from member", Long.class));
+
+        List<ShardedMember> content = merge(results, comparator, pageable.getOffset(), pageable.getPageSize());
+        long total = counts.stream().mapToLong(Long::longValue).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private <T> List<T> scatter(Function<NamedParameterJdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (NamedParameterJdbcTemplate shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private List<ShardedMember> merge(List<List<ShardedMember>> sortedRuns, Comparator<ShardedMember> comparator, long offset, int size) {
+        //[샤드 번호, 다음 위치] 를 각 샤드의 현재 원소 기준으로 꺼낸다.
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) ->
+                comparator.compare(sortedRuns.get(a[0]).get(a[1]), sortedRuns.get(b[0]).get(b[1])));
+        for (int i = 0; i < sortedRuns.size(); i++) {
+            if (!sortedRuns.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<ShardedMember> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < size) {
+            int[] head = heads.poll();
+            List<ShardedMember> run = sortedRuns.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(run.get(head[1]));
+            }
+            if (head[1] + 1 < run.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    private String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        for (Sort.Order order : sort) {
+            orderBy.append(column(order.getProperty())).append(order.isAscending() ? " asc, " : " desc, ");
+        }
+        //샤드 간 병합 순서가 흔들리지 않도록 id 를 마지막 정렬 키로 둔다.
+        return orderBy.append("member_id asc").toString();
+    }
+
+    private Comparator<ShardedMember> comparator(Sort sort) {
+        Comparator<ShardedMember> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<ShardedMember> next = propertyComparator(order.getProperty());
+            comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+        }
+        return comparator.thenComparingLong(ShardedMember::getId);
+    }
+
+    private Comparator<ShardedMember> propertyComparator(String property) {
+        switch (property) {
+            case "id":
+                return Comparator.comparingLong(ShardedMember::getId);
+            case "username":
+                return Comparator.comparing(ShardedMember::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "age":
+                return Comparator.comparingInt(ShardedMember::getAge);
+            case "teamId":
+                return Comparator.comparingLong(ShardedMember::getTeamId);
+            default:
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다: " + property);
+        }
+    }
+
+    private String column(String property) {
+        String column = SORT_COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("정렬할 수 없는 속성입니다: " + property);
+        }
+        return column;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scatterExecutor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.sharding;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * sharding.enabled=true 일 때 sharding.urls 의 데이터소스마다 커넥션 풀을 만든다.
+ * 목록 순서가 샤드 번호이므로 운영 중에 순서를 바꾸거나 중간에 끼워 넣으면 안 된다.
+ * sharding.worker-id 는 인스턴스마다 다르게(0 ~ 63) 줘야 하므로 기본값을 두지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedMemberRepository shardedMemberRepository(
+            @Value("${sharding.urls}") List<String> urls,
+            @Value("${sharding.username:sa}") String username,
+            @Value("${sharding.password:}") String password,
+            @Value("${sharding.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${sharding.worker-id}") int workerId) {
+        List<DataSource> dataSources = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + i);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(maximumPoolSize);
+            dataSources.add(new HikariDataSource(config));
+        }
+        ShardedMemberRepository repository = new ShardedMemberRepository(dataSources, workerId);
+        repository.initSchema();
+        return repository;
+    }
+}
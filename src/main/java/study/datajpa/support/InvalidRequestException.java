@@ -0,0 +1,13 @@
+package study.datajpa.support;
+
+/**
+ * 클라이언트가 보낸 조회 조건이 허용 범위를 벗어났을 때 던진다. 컨트롤러는 이 예외만 400 으로 바꾼다.
+ * IllegalArgumentException 을 쓰지 않는 것은 리파지토리 프록시가 그것을 InvalidDataAccessApiUsageException 으로
+ * 바꿔 버리기 때문이다.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.dto.MemberSnapshot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberNearCacheTest {
+
+    @Test
+    void readThrough() {
+        //given
+        MemberNearCache cache = new MemberNearCache(1000);
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return snapshot(id);
+            });
+        }
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats().getHits()).isEqualTo(2);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void missingMemberIsNotCached() {
+        //given
+        MemberNearCache cache = new MemberNearCache(1000);
+
+        //when
+        MemberSnapshot result = cache.get(1L, id -> null);
+
+        //then
+        assertThat(result).isNull();
+        assertThat(cache.getStats().getSize()).isZero();
+    }
+
+    @Test
+    void evictWhenFull() {
+        //given
+        MemberNearCache cache = new MemberNearCache(16);
+
+        //when
+        for (long id = 1; id <= 1000; id++) {
+            cache.get(id, MemberNearCacheTest::snapshot);
+        }
+
+        //then
+        assertThat(cache.getStats().getSize()).isLessThanOrEqualTo(16);
+        assertThat(cache.getStats().getEvictions()).isGreaterThanOrEqualTo(1000 - 16);
+    }
+
+    @Test
+    void invalidate() {
+        //given
+        MemberNearCache cache = new MemberNearCache(1000);
+        cache.get(1L, MemberNearCacheTest::snapshot);
+
+        //when
+        cache.invalidate(1L);
+
+        //then
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void invalidatedWhileLoading() {
+        //given
+        MemberNearCache cache = new MemberNearCache(1000);
+
+        //when
+        MemberSnapshot result = cache.get(1L, id -> {
+            //로딩 중에 다른 트랜잭션이 커밋하며 무효화한 경우
+            cache.invalidate(id);
+            return snapshot(id);
+        });
+
+        //then
+        assertThat(result).isNotNull();
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    private static MemberSnapshot snapshot(long id) {
+        return new MemberSnapshot(id, "member" + id, 10, 1L, null);
+    }
+}
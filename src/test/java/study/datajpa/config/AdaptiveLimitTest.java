@@ -0,0 +1,96 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void rejectWhenFull() throws InterruptedException {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 0, 200, TimeUnit.MILLISECONDS);
+
+        //when
+        boolean first = limit.tryAcquire(0);
+        boolean second = limit.tryAcquire(0);
+        boolean third = limit.tryAcquire(TimeUnit.MILLISECONDS.toNanos(10));
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+        assertThat(limit.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void increaseOnFastDecreaseOnSlow() throws InterruptedException {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(10, 5, 12, 0, 200, TimeUnit.MILLISECONDS);
+
+        //when 제한을 절반 이상 쓰는 동안 빠르게 끝나면 1 씩 오른다.
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire(0);
+        }
+        for (int i = 0; i < 5; i++) {
+            limit.release(FAST, false);
+        }
+        int increased = limit.getLimit();
+        for (int i = 0; i < 5; i++) {
+            limit.release(SLOW, false);
+        }
+
+        //then
+        assertThat(increased).isEqualTo(12);
+        assertThat(limit.getLimit()).isEqualTo(7);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void droppedBacksOffToMinimum() throws InterruptedException {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(10, 4, 10, 0, 200, TimeUnit.MILLISECONDS);
+
+        //when
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire(0);
+            limit.release(FAST, true);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void queuedRequestAdmittedOnRelease() throws Exception {
+        //given
+        AdaptiveLimit limit = new AdaptiveLimit(1, 1, 1, 1, 200, TimeUnit.MILLISECONDS);
+        limit.tryAcquire(0);
+
+        //when
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.tryAcquire(TimeUnit.SECONDS.toNanos(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limit.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        boolean overQueue = limit.tryAcquire(TimeUnit.SECONDS.toNanos(5));
+        limit.release(FAST, false);
+
+        //then
+        assertThat(overQueue).isFalse();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(1);
+    }
+}
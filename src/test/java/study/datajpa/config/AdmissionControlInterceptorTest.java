@@ -0,0 +1,121 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import study.datajpa.controller.MemberController;
+import study.datajpa.controller.TeamController;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//전체 제한을 1 로 두고, 한 자리를 직접 잡아 둔 채 요청을 보낸다.
+@SpringBootTest(properties = {
+        "admission.global-limit=1",
+        "admission.initial-limit=1",
+        "admission.min-limit=1",
+        "admission.max-queue=0",
+        "admission.retry-after-seconds=3"})
+@AutoConfigureMockMvc
+class AdmissionControlInterceptorTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired AdmissionControlInterceptor interceptor;
+    @Autowired TeamController teamController;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("전체 제한이 다 차면 다른 핸들러도 503 과 Retry-After, 끝난 요청은 자리를 돌려줌")
+    void globalLimitIsSharedAcrossHandlers() throws Exception {
+        //given 다른 핸들러가 전체 제한의 유일한 자리를 잡고 있다.
+        HandlerMethod teams = new HandlerMethod(teamController, TeamController.class.getMethod("teams", Pageable.class, int.class));
+        MockHttpServletRequest heldRequest = new MockHttpServletRequest();
+        MockHttpServletResponse heldResponse = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(heldRequest, heldResponse, teams)).isTrue();
+
+        //when //then
+        mockMvc.perform(get("/members/search").param("q", "none"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.message").exists());
+        assertThat(rejected(AdmissionControlInterceptor.GLOBAL)).isEqualTo(1);
+        assertThat(inFlight(AdmissionControlInterceptor.GLOBAL)).isEqualTo(1);
+        //전체 제한에서 거절되면 핸들러 제한에서 얻은 자리도 돌려준다.
+        String search = AdmissionControlInterceptor.endpointName(MemberController.class.getMethod("searchMembers", String.class, int.class));
+        assertThat(inFlight(search)).isZero();
+
+        interceptor.afterCompletion(heldRequest, heldResponse, teams, null);
+        mockMvc.perform(get("/members/search").param("q", "none"))
+                .andExpect(status().isOk());
+        assertThat(inFlight(AdmissionControlInterceptor.GLOBAL)).isZero();
+        assertThat(inFlight(search)).isZero();
+        assertThat(meterRegistry.get("admission.limit").tag("endpoint", search).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("이름이 같은 오버로드 핸들러는 제한을 따로 씀")
+    void overloadedHandlersHaveSeparateLimits() throws Exception {
+        //when
+        mockMvc.perform(get("/members")).andExpect(status().isOk());
+        mockMvc.perform(get("/members/{id}", -1L)).andExpect(status().isOk());
+
+        //then
+        String page = AdmissionControlInterceptor.endpointName(MemberController.class.getMethod("findMember", Pageable.class));
+        String single = AdmissionControlInterceptor.endpointName(
+                MemberController.class.getMethod("findMember", Long.class, boolean.class, WebRequest.class));
+        assertThat(page).isNotEqualTo(single);
+        assertThat(meterRegistry.find("admission.limit").tag("endpoint", page).gauge()).isNotNull();
+        assertThat(meterRegistry.find("admission.limit").tag("endpoint", single).gauge()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("느린 핸들러는 자기 제한만 줄이고 전체 제한은 그대로라 다른 핸들러는 풀 크기만큼 들어감")
+    void slowHandlerDoesNotThrottleOthers() throws Exception {
+        //given 풀 크기 4, 핸들러 제한은 목표 지연 1ms 로 AIMD
+        AdmissionControlInterceptor pooled = new AdmissionControlInterceptor(AdaptiveLimit.fixed(4, 0),
+                () -> new AdaptiveLimit(4, 1, 4, 0, 1, TimeUnit.MILLISECONDS), 0, 1, SimpleMeterRegistry::new);
+        HandlerMethod slow = new HandlerMethod(teamController, TeamController.class.getMethod("teams", Pageable.class, int.class));
+        HandlerMethod fast = new HandlerMethod(teamController, TeamController.class.getMethod("teamStats", Long.class));
+
+        //when 느린 핸들러가 목표 지연을 넘겨 여러 번 끝난다.
+        for (int i = 0; i < 20; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(pooled.preHandle(request, response, slow)).isTrue();
+            Thread.sleep(5);
+            pooled.afterCompletion(request, response, slow, null);
+        }
+
+        //then
+        assertThat(pooled.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), slow)).isTrue();
+        assertThat(pooled.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), slow)).isFalse();
+        for (int i = 0; i < 3; i++) {
+            assertThat(pooled.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), fast)).isTrue();
+        }
+        assertThat(pooled.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), fast)).isFalse();
+    }
+
+    private double rejected(String endpoint) {
+        return meterRegistry.get("admission.rejected").tag("endpoint", endpoint).functionCounter().count();
+    }
+
+    private double inFlight(String endpoint) {
+        return meterRegistry.get("admission.inflight").tag("endpoint", endpoint).gauge().value();
+    }
+}
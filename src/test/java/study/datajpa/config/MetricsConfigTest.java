@@ -0,0 +1,51 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MetricsConfigTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    void repositoryResultSize() {
+        //given
+        memberRepository.save(Member.createMember("metricsA", 10, null));
+        memberRepository.save(Member.createMember("metricsB", 20, null));
+
+        //when
+        memberRepository.findByNames(List.of("metricsA", "metricsB"));
+        memberRepository.findByNames(List.of("metricsA"));
+
+        //then
+        DistributionSummary summary = meterRegistry.get(RepositoryResultSizeInterceptor.METRIC_NAME)
+                .tag("repository", "MemberRepository")
+                .tag("method", "findByNames")
+                .summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void hibernateStatistics() {
+        //when
+        memberRepository.findAll();
+
+        //then
+        assertThat(meterRegistry.find("hibernate.sessions.open").functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("hibernate.entities.loads").functionCounter()).isNotNull();
+    }
+}
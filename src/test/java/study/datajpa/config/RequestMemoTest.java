@@ -0,0 +1,148 @@
+package study.datajpa.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.Repository;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.BulkDeleteRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.RequestMemoized;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//메모가 트랜잭션(세션)을 넘어 유지되는지 봐야 하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class RequestMemoTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired BulkDeleteRepository bulkDeleteRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private Team team;
+    private Long memberId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.save(new Team("memoTeam"));
+        memberId = memberRepository.save(Member.createMember("memo1", 10, team)).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        bulkDeleteRepository.deleteTeam(team.getId());
+    }
+
+    @Test
+    @DisplayName("같은 요청이면 트랜잭션이 달라도 쿼리를 다시 실행하지 않음")
+    void sameRequestAcrossTransactions() {
+        //when 리파지토리 호출마다 각자의 읽기 전용 트랜잭션과 세션을 쓴다.
+        Optional<MemberSnapshot> first = memberRepository.findSnapshotById(memberId);
+        Optional<MemberSnapshot> second = memberRepository.findSnapshotById(memberId);
+        memberRepository.findSnapshotById(-1L);
+
+        //then
+        assertThat(second).isEqualTo(first);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("요청 안에서 쓰기 SQL 이 나가면 메모를 버림")
+    void writeInvalidatesMemo() {
+        //given
+        assertThat(memberRepository.findSnapshotById(memberId)).map(MemberSnapshot::getAge).contains(10);
+
+        //when
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(memberId).orElseThrow().setAge(30));
+        long beforeRead = statistics.getPrepareStatementCount();
+        Optional<MemberSnapshot> afterWrite = memberRepository.findSnapshotById(memberId);
+
+        //then
+        assertThat(afterWrite).map(MemberSnapshot::getAge).contains(30);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(beforeRead + 1);
+    }
+
+    @Test
+    @DisplayName("웹 요청 밖에서는 매번 실행")
+    void noRequestNoMemo() {
+        //given
+        RequestContextHolder.resetRequestAttributes();
+
+        //when
+        memberRepository.findSnapshotById(memberId);
+        memberRepository.findSnapshotById(memberId);
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("엔티티 결과는 id 로 기억했다가 같은 세션에서는 쿼리 없이 같은 인스턴스를 돌려줌")
+    void entityResultsAreRehydratedFromSession() {
+        //when
+        List<List<Member>> results = transactionTemplate.execute(status -> List.of(
+                memberRepository.findByNames(List.of("memo1")),
+                memberRepository.findByNames(List.of("memo1"))));
+
+        //then
+        assertThat(results.get(1)).hasSize(1);
+        assertThat(results.get(1).get(0)).isSameAs(results.get(0).get(0));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("flush 하지 않고 고친 엔티티가 있으면 메모 대신 쿼리를 다시 실행함")
+    void dirtyEntityBypassesMemo() {
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(memberRepository.findSnapshotById(memberId)).map(MemberSnapshot::getAge).contains(10);
+            assertThat(memberRepository.findUser("memo1", 10)).hasSize(1);
+
+            memberRepository.findById(memberId).orElseThrow().setAge(30);
+
+            //then
+            assertThat(memberRepository.findSnapshotById(memberId)).map(MemberSnapshot::getAge).contains(30);
+            assertThat(memberRepository.findUser("memo1", 10)).isEmpty();
+        });
+    }
+
+    @Test
+    @DisplayName("id 로 다시 만들 수 없는 엔티티 결과에는 쓸 수 없음")
+    void unsupportedEntityResultsAreRejected() {
+        assertThatThrownBy(() -> RequestMemoInterceptor.verify(EntityPageMemoRepository.class))
+                .isInstanceOf(IllegalStateException.class);
+        RequestMemoInterceptor.verify(MemberRepository.class);
+    }
+
+    interface EntityPageMemoRepository extends Repository<Member, Long> {
+        @RequestMemoized
+        Page<Member> findByUsername(String username, Pageable pageable);
+    }
+}
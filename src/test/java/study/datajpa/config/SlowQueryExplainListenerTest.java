@@ -0,0 +1,42 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+//모든 문장을 느린 문장으로 본다.
+@SpringBootTest(properties = "slow-query.threshold-ms=0")
+class SlowQueryExplainListenerTest {
+
+    @Autowired SlowQueryExplainListener slowQueryExplainListener;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    void fingerprint() {
+        assertThat(SlowQueryExplainListener.fingerprint("select *  from member\n where username = 'kim' and age > 10 and member_id in (1, 2, 3)"))
+                .isEqualTo("select * from member where username = ? and age > ? and member_id in (?+)");
+        assertThat(SlowQueryExplainListener.fingerprint("select * from member where member_id in (?, ?)"))
+                .isEqualTo(SlowQueryExplainListener.fingerprint("select * from member where member_id in (?,?,?,?)"));
+    }
+
+    @Test
+    void explainSlowStatement() {
+        //when
+        memberRepository.findByNames(List.of("explainTarget"));
+
+        //then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(slowQueryExplainListener.getPlans())
+                        .anySatisfy(plan -> {
+                            assertThat(plan.getFingerprint()).contains("where member0_.username in (?+)");
+                            assertThat(plan.getPlan()).isNotBlank().doesNotStartWith("EXPLAIN 실패");
+                        }));
+    }
+}
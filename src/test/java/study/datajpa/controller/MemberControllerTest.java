@@ -0,0 +1,117 @@
+package study.datajpa.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("If-None-Match 가 ETag 와 같으면 304")
+    void findMemberNotModified() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member member = memberRepository.save(Member.createMember("member1", 10, team));
+        em.flush();
+        em.clear();
+        String etag = mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("member1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        //when //then
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/members/{id}", member.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("member1"));
+    }
+
+    @Test
+    @DisplayName("허용 범위를 벗어난 조회 조건은 400 과 메시지")
+    void invalidRequest() throws Exception {
+        mockMvc.perform(get("/members/search").param("q", "member").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    @DisplayName("fields 로 고른 plan 에 없는 필드는 응답에서 빠짐")
+    void findMembersWithFetchPlan() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        memberRepository.save(Member.createMember("member1", 10, team));
+        em.flush();
+        em.clear();
+
+        //when //then
+        mockMvc.perform(get("/members").param("fields", "minimal"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("member1"))
+                .andExpect(jsonPath("$.content[0].teamName").doesNotExist())
+                .andExpect(jsonPath("$.content[0].age").doesNotExist());
+        mockMvc.perform(get("/members").param("fields", "withTeam"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].teamName").value("teamA"))
+                .andExpect(jsonPath("$.content[0].createDate").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("알 수 없는 fields 는 400")
+    void findMembersWithUnknownFetchPlan() throws Exception {
+        mockMvc.perform(get("/members").param("fields", "everything"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("지원하지 않는 fetch plan 입니다: everything"));
+    }
+
+    @Test
+    @DisplayName("이름 확인과 조회가 같은 findByNames 를 부르지만 쿼리는 한 번만 나감")
+    void findMembersByUsernamesRunsQueryOnce() throws Exception {
+        //given
+        memberRepository.save(Member.createMember("byName1", 10, null));
+        memberRepository.save(Member.createMember("byName2", 20, null));
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when //then
+        mockMvc.perform(get("/members").param("usernames", "byName1", "byName2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        mockMvc.perform(get("/members").param("usernames", "byName1", "nobody"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,108 @@
+package study.datajpa.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    private final DatasetSpec spec = DatasetSpec.builder()
+            .teams(50)
+            .members(20_000)
+            .batchSize(1_000)
+            .producers(4)
+            .seed(7L)
+            .build();
+
+    @Test
+    void sameSeedSameData() {
+        //given
+        JdbcTemplate db1 = database("dataset1");
+        JdbcTemplate db2 = database("dataset2");
+
+        //when
+        new DatasetGenerator(db1.getDataSource()).generate(spec);
+        new DatasetGenerator(db2.getDataSource()).generate(DatasetSpec.builder()
+                .teams(50).members(20_000).batchSize(1_000).producers(1).seed(7L).build());
+
+        //then
+        String fingerprint = "select member_id, username, age, team_id from member order by member_id";
+        assertThat(db1.queryForList(fingerprint)).isEqualTo(db2.queryForList(fingerprint));
+    }
+
+    @Test
+    void skewedTeamsAndConsistentStats() {
+        //given
+        JdbcTemplate db = database("dataset3");
+
+        //when
+        DatasetGenerator.Result result = new DatasetGenerator(db.getDataSource()).generate(spec);
+
+        //then
+        assertThat(db.queryForObject("select count(*) from member", Long.class)).isEqualTo(20_000);
+        List<Long> sizes = db.queryForList("select count(*) from member group by team_id order by count(*) desc", Long.class);
+        assertThat(sizes.get(0)).isGreaterThan(sizes.get(sizes.size() - 1) * 10);
+
+        List<Map<String, Object>> drifted = db.queryForList("select s.team_id from team_stats s" +
+                " left join (select team_id, count(*) cnt, sum(age) age_sum, min(age) min_age, max(age) max_age" +
+                "   from member group by team_id) a on a.team_id = s.team_id" +
+                " where s.member_count <> coalesce(a.cnt, 0) or s.age_sum <> coalesce(a.age_sum, 0)" +
+                " or s.min_age is distinct from a.min_age or s.max_age is distinct from a.max_age");
+        assertThat(drifted).isEmpty();
+
+        //시퀀스는 생성한 id 뒤에서 이어진다.
+        long nextId = db.queryForObject("select next value for hibernate_sequence", Long.class);
+        assertThat(nextId).isEqualTo(result.getFirstId() + 50 + 20_000);
+    }
+
+    @Test
+    void reservedIdsDoNotOverlapConcurrentSequenceUse() throws Exception {
+        //given
+        JdbcTemplate db = database("dataset4");
+        List<Long> taken = new CopyOnWriteArrayList<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread other = new Thread(() -> {
+            while (running.get()) {
+                taken.add(db.queryForObject("select next value for hibernate_sequence", Long.class));
+            }
+        });
+        other.start();
+
+        //when
+        DatasetGenerator.Result result;
+        try {
+            result = new DatasetGenerator(db.getDataSource()).generate(spec);
+        } finally {
+            running.set(false);
+            other.join();
+        }
+
+        //then
+        long first = result.getFirstId();
+        long end = first + 50 + 20_000;
+        assertThat(taken).noneMatch(id -> id >= first && id < end);
+        assertThat(db.queryForObject("select count(*) from member", Long.class)).isEqualTo(20_000);
+    }
+
+    private JdbcTemplate database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("drop all objects");
+        jdbc.execute("create sequence hibernate_sequence start with 1 increment by 1");
+        jdbc.execute("create table team (team_id bigint primary key, name varchar(255)," +
+                " create_date timestamp, update_date timestamp, create_by varchar(255), update_by varchar(255))");
+        jdbc.execute("create table team_stats (team_id bigint primary key, member_count bigint, age_sum bigint," +
+                " min_age integer, max_age integer, bounds_stale boolean)");
+        jdbc.execute("create table member (member_id bigint primary key, username varchar(255), age integer not null," +
+                " team_id bigint, create_date timestamp, update_date timestamp, create_by varchar(255), update_by varchar(255))");
+        return jdbc;
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactMemberPageSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void serializeWithNextPage() throws Exception {
+        //given
+        List<MemberDto> content = List.of(new MemberDto(1L, "member1", "TeamA"), new MemberDto(2L, "member2", null));
+        CompactMemberPage page = new CompactMemberPage(new SliceImpl<>(content, PageRequest.of(0, 2), true));
+
+        //when
+        String json = objectMapper.writeValueAsString(page);
+
+        //then
+        assertThat(json).isEqualTo("{\"content\":[{\"id\":1,\"username\":\"member1\",\"teamName\":\"TeamA\"}," +
+                "{\"id\":2,\"username\":\"member2\"}],\"page\":0,\"next\":1}");
+    }
+
+    @Test
+    void serializeLastPageWithTotal() throws Exception {
+        //given
+        List<MemberDto> content = List.of(new MemberDto(3L, "member3", "TeamA"));
+        CompactMemberPage page = new CompactMemberPage(new SliceImpl<>(content, PageRequest.of(1, 2), false));
+
+        //when
+        String json = objectMapper.writeValueAsString(page);
+
+        //then
+        assertThat(json).isEqualTo("{\"content\":[{\"id\":3,\"username\":\"member3\",\"teamName\":\"TeamA\"}],\"page\":1,\"total\":3}");
+    }
+
+    @Test
+    void serializeEmptyPagePastEndWithoutTotal() throws Exception {
+        //given
+        CompactMemberPage page = new CompactMemberPage(new SliceImpl<>(List.of(), PageRequest.of(5, 2), false));
+
+        //when
+        String json = objectMapper.writeValueAsString(page);
+
+        //then
+        assertThat(json).isEqualTo("{\"content\":[],\"page\":5}");
+    }
+
+    @Test
+    void serializeEmptyFirstPageWithZeroTotal() throws Exception {
+        //given
+        CompactMemberPage page = new CompactMemberPage(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+
+        //when
+        String json = objectMapper.writeValueAsString(page);
+
+        //then
+        assertThat(json).isEqualTo("{\"content\":[],\"page\":0,\"total\":0}");
+    }
+}
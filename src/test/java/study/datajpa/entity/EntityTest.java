@@ -1,5 +1,6 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,6 +70,27 @@ class EntityTest {
         assertThat(findMember3.getTeam()).isSameAs(teamB);
     }
 
+    @Test
+    @DisplayName("팀 배정 시 members 컬렉션을 초기화하지 않음")
+    void changeTeamWithoutInitializingMembers() {
+        //given
+        Team teamA = getTeam("TeamA");
+        createMember("member1", 15, teamA);
+        createMember("member2", 25, teamA);
+        em.flush();
+        em.clear();
+
+        //when
+        Team findTeam = em.find(Team.class, teamA.getId());
+        Member member3 = createMember("member3", 35, findTeam);
+
+        //then
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        assertThat(findTeam.getMembers().size()).isEqualTo(3);
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        assertThat(findTeam.getMembers()).contains(member3);
+    }
+
     private Member createMember(String username, int age, Team team) {
         Member member = Member.createMember(username, age, team);
         return memberJpaRepository.save(member);
@@ -0,0 +1,93 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class BulkDeleteRepositoryTest {
+
+    @Autowired BulkDeleteRepository bulkDeleteRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    void deleteTeam() {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Team teamB = teamRepository.save(new Team("TeamB"));
+        for (int i = 0; i < 2500; i++) {
+            memberRepository.save(Member.createMember("memberA" + i, 20, teamA));
+        }
+        Member memberB = memberRepository.save(Member.createMember("memberB", 30, teamB));
+        em.flush();
+
+        //when
+        int deleted = bulkDeleteRepository.deleteTeam(teamA.getId());
+
+        //then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(em.contains(teamA)).isFalse();
+        assertThat(teamRepository.findById(teamA.getId())).isEmpty();
+        assertThat(em.createQuery("select count(m) from Member m where m.team.id = :teamId", Long.class)
+                .setParameter("teamId", teamA.getId())
+                .getSingleResult()).isZero();
+        assertThat(memberRepository.findById(memberB.getId())).isPresent();
+    }
+
+    @Test
+    void deleteMembersByIds() {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Member member1 = memberRepository.save(Member.createMember("member1", 10, teamA));
+        Member member2 = memberRepository.save(Member.createMember("member2", 20, teamA));
+        memberRepository.save(Member.createMember("member3", 30, teamA));
+        em.flush();
+
+        //when
+        int deleted = bulkDeleteRepository.deleteMembersByIds(List.of(member1.getId(), member2.getId(), member2.getId()));
+
+        //then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse();
+        assertThat(em.find(TeamStats.class, teamA.getId()).getMemberCount()).isEqualTo(1);
+        TeamStatsDto stats = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(1);
+        assertThat(stats.getMinAge()).isEqualTo(30);
+        assertThat(teamStatsRepository.reconcile()).isZero();
+    }
+
+    @Test
+    void deleteMembersByPredicate() {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(Member.createMember("bulkDelete" + i, i, teamA));
+        }
+        em.flush();
+
+        //when
+        int deleted = bulkDeleteRepository.deleteMembers(member.username.startsWith("bulkDelete").and(member.age.goe(10)));
+
+        //then
+        assertThat(deleted).isEqualTo(20);
+        TeamStatsDto stats = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(9);
+    }
+}
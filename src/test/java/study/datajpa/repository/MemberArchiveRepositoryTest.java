@@ -0,0 +1,131 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.service.MemberService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberArchiveRepositoryTest {
+
+    @Autowired MemberArchiveRepository memberArchiveRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberService memberService;
+    @Autowired BulkDeleteRepository bulkDeleteRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("오래된 회원만 청크 단위로 보관 테이블로 옮기고 조회 옵션으로 합쳐 읽음")
+    void archiveChunk() {
+        //given
+        Team team = teamRepository.save(new Team("TeamA"));
+        Member old1 = memberRepository.save(Member.createMember("archived", 10, team));
+        Member old2 = memberRepository.save(Member.createMember("archived", 20, team));
+        Member recent = memberRepository.save(Member.createMember("archived", 30, team));
+        em.flush();
+        em.createNativeQuery("update member set create_date = :createDate where member_id in (:ids)")
+                .setParameter("createDate", LocalDateTime.now().minusDays(400))
+                .setParameter("ids", List.of(old1.getId(), old2.getId()))
+                .executeUpdate();
+        em.clear();
+        long archivedBefore = memberArchiveRepository.countArchived();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(365);
+
+        //when
+        int first = memberArchiveRepository.archiveChunk(cutoff, 1);
+        int second = memberArchiveRepository.archiveChunk(cutoff, 1);
+        int third = memberArchiveRepository.archiveChunk(cutoff, 1);
+
+        //then
+        assertThat(first + second).isEqualTo(2);
+        assertThat(third).isZero();
+        assertThat(memberArchiveRepository.countArchived()).isEqualTo(archivedBefore + 2);
+        assertThat(memberRepository.findById(old1.getId())).isEmpty();
+        assertThat(em.find(TeamStats.class, team.getId()).getMemberCount()).isEqualTo(1);
+
+        assertThat(memberArchiveRepository.findByUsername("archived", false))
+                .extracting(MemberSnapshot::getId).containsExactly(recent.getId());
+        assertThat(memberArchiveRepository.findByUsername("archived", true))
+                .extracting(MemberSnapshot::getId).containsExactly(old1.getId(), old2.getId(), recent.getId());
+        assertThat(memberService.findSnapshot(old1.getId(), false)).isEmpty();
+        assertThat(memberService.findSnapshot(old1.getId(), true)).map(MemberSnapshot::getAge).contains(10);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("다른 트랜잭션이 옮기고 있는 회원은 기다리지 않고 건너뜀")
+    void archiveChunkSkipsLockedRows() throws Exception {
+        //given 청크마다 팀을 달리해 팀 집계 행에서 서로 기다리지 않게 한다.
+        Team teamA = teamRepository.save(new Team("lockArchiveA"));
+        Team teamB = teamRepository.save(new Team("lockArchiveB"));
+        List<Long> ids = new ArrayList<>();
+        for (Team team : List.of(teamA, teamA, teamB, teamB)) {
+            ids.add(memberRepository.save(Member.createMember("lockArchived", 20, team)).getId());
+        }
+        jdbcTemplate.update("update member set create_date = ? where team_id in (?, ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(400)), teamA.getId(), teamB.getId());
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(365);
+        CountDownLatch archived = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                int count = memberArchiveRepository.archiveChunk(cutoff, 2);
+                archived.countDown();
+                try {
+                    finish.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return count;
+            }));
+            assertThat(archived.await(10, TimeUnit.SECONDS)).isTrue();
+
+            //when
+            long start = System.nanoTime();
+            int second = memberArchiveRepository.archiveChunk(cutoff, 2);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            finish.countDown();
+
+            //then
+            assertThat(first.get()).isEqualTo(2);
+            assertThat(second).isEqualTo(2);
+            assertThat(elapsedMillis).isLessThan(1000);
+            assertThat(memberRepository.findAllById(ids)).isEmpty();
+            assertThat(jdbcTemplate.queryForObject("select count(*) from member_archive where member_id in (?, ?, ?, ?)",
+                    Long.class, ids.toArray())).isEqualTo(4);
+        } finally {
+            finish.countDown();
+            executor.shutdown();
+            jdbcTemplate.update("delete from member_archive where team_id in (?, ?)", teamA.getId(), teamB.getId());
+            bulkDeleteRepository.deleteTeams(List.of(teamA.getId(), teamB.getId()));
+        }
+    }
+}
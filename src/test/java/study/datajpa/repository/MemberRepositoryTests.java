@@ -1,6 +1,9 @@
 package study.datajpa.repository;
 
 import org.awaitility.Durations;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,16 +11,22 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberView;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.support.InvalidRequestException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 
 @SpringBootTest
@@ -232,7 +241,8 @@ class MemberRepositoryTests {
         em.clear();
         List<Member> members = memberRepository.findAll();
 
-        //then
+        //then 기본 findAll 은 팀을 조인하지 않는다. 팀이 필요하면 findMembersFetchJoin 이나 MemberFetchPlan.FULL 을 쓴다.
+        assertThat(members).noneMatch(member -> member.getTeam() != null && Hibernate.isInitialized(member.getTeam()));
         System.out.println("__________________________________");
         for (Member member : members) {
             System.out.println("member.getUsername() = " + member.getUsername());
@@ -408,6 +418,149 @@ class MemberRepositoryTests {
 
     }
 
+    @Test
+    void nativeProjectionRows() {
+        //given
+        simpleMemberSet();
+
+        //when
+        Page<MemberProjection> rows = memberRepository.findNativeProjectionRows(PageRequest.of(0, 1, Sort.by("username")));
+
+        //then
+        assertThat(rows.getTotalElements()).isEqualTo(2L);
+        assertThat(rows.getContent().get(0)).isInstanceOf(MemberProjectionRow.class);
+        assertThat(rows.getContent().get(0).getUsername()).isEqualTo("m1");
+        assertThat(rows.getContent().get(0).getTeamName()).isEqualTo("teamA");
+    }
+
+
+    @Test
+    void searchByCondition() {
+        //given
+        setMembers();
+        Team teamB = getTeam("TeamB");
+        createMember("member11", 30, teamB);
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+
+        //when
+        Page<MemberDto> all = memberRepository.search(condition, PageRequest.of(0, 10, Sort.by("username")));
+        condition.setTeamName("TeamB");
+        Page<MemberDto> teamBMembers = memberRepository.search(condition, PageRequest.of(0, 10));
+
+        //then
+        assertThat(all.getContent()).extracting("username").containsExactly("member10", "member11");
+        assertThat(all.getTotalElements()).isEqualTo(2);
+        assertThat(teamBMembers.getContent()).extracting("teamName").containsExactly("TeamB");
+    }
+
+    @Test
+    void searchSortByTeamName() {
+        //given
+        Team teamB = getTeam("TeamB");
+        Team teamA = getTeam("TeamA");
+        createMember("member1", 10, teamB);
+        createMember("member2", 20, teamA);
+        em.flush();
+        em.clear();
+
+        //when
+        Page<MemberDto> sorted = memberRepository.search(new MemberSearchCondition(), PageRequest.of(0, 10, Sort.by("teamName")));
+
+        //then
+        assertThat(sorted.getContent()).extracting("teamName").containsExactly("TeamA", "TeamB");
+        assertThatThrownBy(() -> memberRepository.search(new MemberSearchCondition(), PageRequest.of(0, 10, Sort.by("team"))))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void findWithTeamByFetchPlan() {
+        //given
+        teamAndMemberSet();
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Member> page = memberRepository.findWithTeamBy(PageRequest.of(0, 3, Sort.by("username")));
+
+        //then
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(page.getContent()).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+        assertThat(new MemberDto(page.getContent().get(0)).getTeamName()).isEqualTo("TeamA_1");
+    }
+
+    @Test
+    void findPageByFetchPlan() {
+        //given
+        teamAndMemberSet();
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("username"));
+
+        //when
+        Page<MemberView> minimal = memberRepository.findPage(MemberFetchPlan.MINIMAL, pageRequest);
+        Page<MemberView> withTeam = memberRepository.findPage(MemberFetchPlan.WITH_TEAM, pageRequest);
+        Page<MemberView> full = memberRepository.findPage(MemberFetchPlan.FULL, pageRequest);
+
+        //then
+        assertThat(minimal.getTotalElements()).isEqualTo(10);
+        assertThat(minimal.getContent()).extracting("username").containsExactly("member1", "member10", "member2");
+        assertThat(minimal.getContent()).allMatch(v -> v.getTeamName() == null && v.getAge() == null);
+        assertThat(withTeam.getContent()).extracting("teamName").containsExactly("TeamA_1", "TeamA_10", "TeamA_2");
+        assertThat(withTeam.getContent()).allMatch(v -> v.getCreateDate() == null);
+        assertThat(full.getContent()).extracting("teamName").containsExactly("TeamA_1", "TeamA_10", "TeamA_2");
+        assertThat(full.getContent()).allMatch(v -> v.getCreateDate() != null && v.getAge() == 15);
+    }
+
+    @Test
+    void findPageByFetchPlanSkipsCountOnLastPage() {
+        //given
+        teamAndMemberSet();
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        Page<MemberView> last = memberRepository.findPage(MemberFetchPlan.MINIMAL, PageRequest.of(3, 3, Sort.by("username")));
+
+        //then
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.getTotalElements()).isEqualTo(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findPageByFetchPlanRejectsTeamSort() {
+        assertThatThrownBy(() -> memberRepository.findPage(MemberFetchPlan.MINIMAL, PageRequest.of(0, 3, Sort.by("team.name"))))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThat(MemberFetchPlan.from("withTeam")).isEqualTo(MemberFetchPlan.WITH_TEAM);
+        assertThatThrownBy(() -> MemberFetchPlan.from("everything"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void forEachChunk() {
+        //given
+        setMembers();
+        List<Integer> chunkSizes = new ArrayList<>();
+        AtomicLong parallelCount = new AtomicLong();
+
+        //when
+        long count = memberRepository.forEachChunk(3, chunk -> chunkSizes.add(chunk.size()));
+        long parallel = memberRepository.forEachChunk(3, 2, chunk -> parallelCount.addAndGet(chunk.size()));
+
+        //then
+        assertThat(count).isEqualTo(10);
+        assertThat(chunkSizes).containsExactly(3, 3, 3, 1);
+        assertThat(parallel).isEqualTo(10);
+        assertThat(parallelCount.get()).isEqualTo(10);
+    }
 
     private void setMembers() {
         Team teamA = getTeam("TeamA");
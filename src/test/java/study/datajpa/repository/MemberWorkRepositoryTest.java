@@ -0,0 +1,160 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.service.MemberWorkPool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+//워커마다 따로 커밋해야 하므로 테스트 트랜잭션을 쓰지 않고 끝나면 직접 지운다.
+@SpringBootTest
+class MemberWorkRepositoryTest {
+
+    @Autowired MemberWorkRepository memberWorkRepository;
+    @Autowired MemberWorkPool memberWorkPool;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired BulkDeleteRepository bulkDeleteRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private Team team;
+    private final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.save(new Team("workTeam"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            members.add(Member.createMember("worker" + i, 20, team));
+        }
+        memberRepository.saveAll(members).forEach(m -> memberIds.add(m.getId()));
+        memberWorkRepository.enqueue(memberIds);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkDeleteRepository.deleteTeam(team.getId());
+    }
+
+    @Test
+    @DisplayName("다른 트랜잭션이 잠근 행은 기다리지 않고 건너뜀")
+    void claimSkipsLockedRows() throws Exception {
+        //given
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<List<Long>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = memberWorkRepository.claim("a", 10, Duration.ofMinutes(1));
+            claimed.countDown();
+            try {
+                finish.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ids;
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        //when
+        long start = System.nanoTime();
+        List<Long> second = memberWorkRepository.claim("b", 10, Duration.ofMinutes(1));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        finish.countDown();
+
+        //then
+        assertThat(second).hasSize(10).doesNotContainAnyElementsOf(first.get());
+        assertThat(elapsedMillis).isLessThan(1000);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("lease 만료 시각은 DB 시계 기준으로 찍힘")
+    void leaseUsesDatabaseClock() {
+        //when
+        List<Long> claimed = memberWorkRepository.claim("a", 1, Duration.ofMinutes(1));
+
+        //then
+        Long seconds = jdbcTemplate.queryForObject("select datediff(second, localtimestamp, lease_expires_at)" +
+                " from member_work where member_id = ?", Long.class, claimed.get(0));
+        assertThat(seconds).isBetween(55L, 60L);
+    }
+
+    @Test
+    @DisplayName("lease 가 끝난 항목은 다른 워커가 가져가고 원래 워커는 완료할 수 없음")
+    void leaseExpiry() {
+        //given
+        List<Long> claimedByA = memberWorkRepository.claim("a", 5, Duration.ofMillis(200));
+
+        //when
+        List<Long> claimedByB = new ArrayList<>();
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            claimedByB.addAll(memberWorkRepository.claim("b", 5, Duration.ofMinutes(1)));
+            return !claimedByB.isEmpty() && claimedByB.containsAll(claimedByA);
+        });
+
+        //then
+        assertThat(memberWorkRepository.complete("a", claimedByA)).isZero();
+        assertThat(memberWorkRepository.complete("b", claimedByA)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("워커 풀이 모든 항목을 한 번씩 처리")
+    void drain() {
+        //given
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+
+        //when
+        MemberWorkPool.Result result = memberWorkPool.drain(4, 20, Duration.ofMinutes(1), processed::addAll);
+
+        //then
+        assertThat(result.getCompleted()).isEqualTo(200);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getExhausted()).isZero();
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(memberIds);
+        assertThat(memberWorkRepository.countPending()).isZero();
+    }
+
+    @Test
+    @DisplayName("MAX_ATTEMPTS 번 가져간 항목은 더 넘기지 않고 exhausted 로 보고")
+    void exhaustedItemsAreReported() {
+        //given
+        List<Long> failing = memberWorkRepository.claim("a", 3, Duration.ofMinutes(1));
+        memberWorkRepository.release("a", failing);
+        for (int i = 1; i < MemberWorkRepository.MAX_ATTEMPTS; i++) {
+            assertThat(memberWorkRepository.claim("a", 3, Duration.ofMinutes(1))).isEqualTo(failing);
+            memberWorkRepository.release("a", failing);
+        }
+
+        //when
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        MemberWorkPool.Result result = memberWorkPool.drain(2, 20, Duration.ofMinutes(1), processed::addAll);
+
+        //then
+        assertThat(processed).doesNotContainAnyElementsOf(failing);
+        assertThat(result.getCompleted()).isEqualTo(197);
+        assertThat(result.getExhausted()).isEqualTo(3);
+        assertThat(memberWorkRepository.countExhausted()).isEqualTo(3);
+        assertThat(memberWorkRepository.countPending()).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.repository;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//readOnly 트랜잭션을 직접 열어야 하므로 테스트 트랜잭션을 쓰지 않는다.
+@SpringBootTest
+class ReadOnlyTransactionTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext EntityManager em;
+
+    TransactionTemplate readOnly;
+    Member member;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        member = memberRepository.save(Member.createMember("readOnlyMember", 10, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteById(member.getId());
+    }
+
+    @Test
+    void readOnlySession() {
+        readOnly.executeWithoutResult(status -> {
+            //when
+            Member findMember = memberJpaRepository.find(member.getId());
+            Session session = em.unwrap(Session.class);
+
+            //then
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            assertThat(session.isReadOnly(findMember)).isTrue();
+        });
+    }
+
+    @Test
+    void persistFailsFast() {
+        assertThatThrownBy(() -> readOnly.executeWithoutResult(status ->
+                memberJpaRepository.save(Member.createMember("ignored", 10, null))))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+
+    @Test
+    void bulkUpdateFailsFast() {
+        assertThatThrownBy(() -> readOnly.executeWithoutResult(status ->
+                em.createQuery("update Member m set m.age = m.age + 1").executeUpdate()))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+}
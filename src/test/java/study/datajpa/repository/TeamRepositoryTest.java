@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamMembersDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.support.InvalidRequestException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("팀 페이지와 그 팀들의 회원을 쿼리 세 번으로 읽음")
+    void findTeamsWithMembers() {
+        //given
+        for (int i = 1; i <= 5; i++) {
+            Team team = teamRepository.save(new Team("team" + i));
+            for (int j = 0; j < i; j++) {
+                memberRepository.save(Member.createMember("member" + i + "_" + j, 10 + j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        Page<TeamMembersDto> page = teamRepository.findTeamsWithMembers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")), 10);
+
+        //then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting("teamName").containsExactly("team5", "team4");
+        assertThat(page.getContent().get(0).getMembers()).hasSize(5);
+        assertThat(page.getContent().get(0).getMemberCount()).isEqualTo(5);
+        assertThat(page.getContent().get(1).getMembers()).extracting("username")
+                .containsExactly("member4_0", "member4_1", "member4_2", "member4_3");
+        //팀 페이지, 회원 IN, count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findTeamsWithMembersRejectsUnknownSort() {
+        assertThatThrownBy(() -> teamRepository.findTeamsWithMembers(PageRequest.of(0, 2, Sort.by("members")), 10))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("팀마다 회원을 membersLimit 명까지만 붙이고 전체 인원은 따로 알려줌")
+    void findTeamsWithMembersCapsMembersPerTeam() {
+        //given
+        Team big = teamRepository.save(new Team("big"));
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(Member.createMember("member" + i, 20, big));
+        }
+        Team small = teamRepository.save(new Team("small"));
+        memberRepository.save(Member.createMember("solo", 20, small));
+        em.flush();
+        em.clear();
+
+        //when
+        Page<TeamMembersDto> page = teamRepository.findTeamsWithMembers(Pageable.unpaged(), 3);
+
+        //then
+        TeamMembersDto bigTeam = page.getContent().stream().filter(t -> t.getTeamId().equals(big.getId())).findFirst().orElseThrow();
+        assertThat(bigTeam.getMembers()).extracting("username").containsExactly("member0", "member1", "member2");
+        assertThat(bigTeam.getMemberCount()).isEqualTo(30);
+        TeamMembersDto smallTeam = page.getContent().stream().filter(t -> t.getTeamId().equals(small.getId())).findFirst().orElseThrow();
+        assertThat(smallTeam.getMembers()).hasSize(1);
+    }
+
+    @Test
+    void findTeamsWithMembersRejectsMembersLimitOutOfRange() {
+        assertThatThrownBy(() -> teamRepository.findTeamsWithMembers(PageRequest.of(0, 2), 0))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> teamRepository.findTeamsWithMembers(PageRequest.of(0, 2), 101))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}
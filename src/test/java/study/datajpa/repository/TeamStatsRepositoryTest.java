@@ -0,0 +1,166 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("가입, 팀 이동, 탈퇴, 나이 변경이 집계에 반영됨")
+    void incrementalStats() {
+        //given
+        Team teamA = getTeam("TeamA");
+        Team teamB = getTeam("TeamB");
+        Member member1 = createMember("member1", 10, teamA);
+        Member member2 = createMember("member2", 20, teamA);
+        Member member3 = createMember("member3", 30, teamA);
+        em.flush();
+
+        //when
+        member3.changeTeam(teamB);
+        member2.setAge(25);
+        memberRepository.delete(member1);
+        em.flush();
+        em.clear();
+
+        //then
+        TeamStatsDto statsA = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(statsA.getMemberCount()).isEqualTo(1);
+        assertThat(statsA.getAverageAge()).isEqualTo(25.0);
+        assertThat(statsA.getMinAge()).isEqualTo(25);
+        assertThat(statsA.getMaxAge()).isEqualTo(25);
+
+        TeamStatsDto statsB = teamStatsRepository.findStats(teamB.getId()).orElseThrow();
+        assertThat(statsB.getMemberCount()).isEqualTo(1);
+        assertThat(statsB.getMinAge()).isEqualTo(30);
+    }
+
+    @Test
+    void bulkAgePlus() {
+        //given
+        Team teamA = getTeam("TeamA");
+        createMember("member1", 10, teamA);
+        createMember("member2", 20, teamA);
+        createMember("member3", 30, teamA);
+
+        //when
+        memberRepository.bulkAgePlus(20);
+
+        //then
+        TeamStatsDto stats = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(stats.getAverageAge()).isEqualTo(62.0 / 3);
+        assertThat(stats.getMinAge()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(31);
+        assertThat(teamStatsRepository.reconcile()).isZero();
+    }
+
+    @Test
+    void reconcile() {
+        //given
+        Team teamA = getTeam("TeamA");
+        createMember("member1", 10, teamA);
+        createMember("member2", 20, teamA);
+        em.flush();
+        em.createNativeQuery("update team_stats set member_count = 99, age_sum = 0").executeUpdate();
+        em.clear();
+
+        //when
+        int repaired = teamStatsRepository.reconcile();
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(repaired).isEqualTo(1);
+        TeamStatsDto stats = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getAverageAge()).isEqualTo(15.0);
+    }
+
+    @Test
+    @DisplayName("팀 엔티티 flush 가 SQL 로 반영한 증감을 덮어쓰지 않음")
+    void entityFlushKeepsSqlDeltas() {
+        //given
+        Team teamA = getTeam("TeamA");
+        createMember("member1", 10, teamA);
+        em.flush();
+        em.clear();
+        Team loaded = teamRepository.findById(teamA.getId()).orElseThrow();
+
+        //when 다른 트랜잭션(나이 쓰기 버퍼 등)이 반영한 증감
+        em.createNativeQuery("update team_stats set age_sum = age_sum + 5 where team_id = :teamId")
+                .setParameter("teamId", teamA.getId())
+                .executeUpdate();
+        loaded.setName("TeamA2");
+        createMember("member2", 20, loaded);
+        em.flush();
+        em.clear();
+
+        //then
+        TeamStatsDto stats = teamStatsRepository.findStats(teamA.getId()).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getAverageAge()).isEqualTo(35 / 2.0);
+    }
+
+    @Test
+    @DisplayName("집계가 0 이면 탈퇴해도 음수로 내려가지 않음")
+    void leaveDoesNotGoBelowZero() {
+        //given
+        Team teamA = getTeam("TeamA");
+        em.flush();
+
+        //when
+        int updated = teamStatsRepository.leave(teamA.getId(), 10);
+
+        //then
+        assertThat(updated).isZero();
+        assertThat(teamStatsRepository.findStats(teamA.getId()).orElseThrow().getMemberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("팀을 만들고 지우면 집계 행도 함께 만들어지고 지워짐")
+    void statsRowFollowsTeam() {
+        //given
+        Team teamA = getTeam("TeamA");
+        em.flush();
+        em.clear();
+        TeamStats created = em.find(TeamStats.class, teamA.getId());
+
+        //when
+        teamRepository.delete(teamRepository.findById(teamA.getId()).orElseThrow());
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(created.getMemberCount()).isZero();
+        assertThat(em.find(TeamStats.class, teamA.getId())).isNull();
+    }
+
+    private Member createMember(String username, int age, Team team) {
+        Member member = Member.createMember(username, age, team);
+        return memberRepository.save(member);
+    }
+
+    private Team getTeam(String teamName) {
+        Team team = new Team(teamName);
+        return teamRepository.save(team);
+    }
+}
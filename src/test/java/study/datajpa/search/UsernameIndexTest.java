@@ -0,0 +1,114 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameIndexTest {
+
+    private final UsernameIndex index = new UsernameIndex();
+
+    @Test
+    void rankExactPrefixSubstring() {
+        //given
+        index.put(1L, "member1");
+        index.put(2L, "Member12");
+        index.put(3L, "amember");
+        index.put(4L, "mem");
+
+        //when
+        long[] result = index.search("MEM", 10);
+
+        //then
+        assertThat(result).containsExactly(4L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void shortQueryMatchesPrefixOnly() {
+        //given
+        index.put(1L, "member1");
+        index.put(2L, "amember");
+
+        //when
+        long[] result = index.search("me", 10);
+
+        //then
+        assertThat(result).containsExactly(1L);
+    }
+
+    @Test
+    void gramsMustBeContiguous() {
+        //given
+        index.put(1L, "abcxbcd");
+        index.put(2L, "abcd");
+
+        //when
+        long[] result = index.search("abcd", 10);
+
+        //then
+        assertThat(result).containsExactly(2L);
+    }
+
+    @Test
+    void renameAndRemove() {
+        //given
+        index.put(1L, "member1");
+        index.put(2L, "member2");
+        index.put(3L, "member3");
+
+        //when
+        index.put(2L, "other");
+        index.remove(3L);
+
+        //then
+        assertThat(index.search("member", 10)).containsExactly(1L);
+        assertThat(index.search("oth", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void limit() {
+        //given
+        for (long id = 1; id <= 50; id++) {
+            index.put(id, "member" + id);
+        }
+
+        //when
+        long[] result = index.search("member", 3);
+
+        //then
+        assertThat(result).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shortQueryKeepsTopLimitInOrder() {
+        //given
+        for (long id = 1000; id >= 1; id--) {
+            index.put(id, "m" + id);
+        }
+
+        //when
+        long[] result = index.search("m", 4);
+
+        //then 짧은 이름, 작은 id 순
+        assertThat(result).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void loadDoesNotOverwriteChangesMadeWhileLoading() {
+        //given
+        index.beginLoad();
+        index.put(1L, "renamed");
+        index.remove(2L);
+
+        //when DB 에서 먼저 읽어 둔 옛 값
+        index.load(1L, "member1");
+        index.load(2L, "member2");
+        index.load(3L, "member3");
+        index.endLoad();
+
+        //then
+        assertThat(index.search("renamed", 10)).containsExactly(1L);
+        assertThat(index.search("member", 10)).containsExactly(3L);
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//테스트 트랜잭션 밖에서 주기적인 flush 가 값을 가져가지 않도록 주기를 길게 둔다.
+@SpringBootTest(properties = "member-age-buffer.max-staleness-ms=3600000")
+@Transactional
+class MemberAgeWriteBufferTest {
+
+    @Autowired MemberAgeWriteBuffer memberAgeWriteBuffer;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    void coalesceAndFlush() throws InterruptedException {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Member member1 = memberRepository.save(Member.createMember("member1", 10, teamA));
+        Member member2 = memberRepository.save(Member.createMember("member2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> memberAgeWriteBuffer.add(member1.getId(), 1));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        memberAgeWriteBuffer.add(member2.getId(), -5);
+        int flushed = memberAgeWriteBuffer.flush();
+
+        //then
+        assertThat(flushed).isEqualTo(2);
+        assertThat(memberRepository.findById(member1.getId()).orElseThrow().getAge()).isEqualTo(1010);
+        assertThat(memberRepository.findById(member2.getId()).orElseThrow().getAge()).isEqualTo(15);
+        assertThat(em.find(TeamStats.class, teamA.getId()).getAgeSum()).isEqualTo(1025);
+        assertThat(memberAgeWriteBuffer.flush()).isZero();
+        assertThat(memberAgeWriteBuffer.getStats().getFlushedRows()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("버퍼가 나이를 반영한 뒤 이미 로딩된 회원의 다른 컬럼을 바꿔도 나이가 되돌아가지 않음")
+    void entityUpdateKeepsBufferedAge() {
+        //given
+        Member member = memberRepository.save(Member.createMember("member1", 10, null));
+        em.flush();
+        em.clear();
+        Member loaded = memberRepository.findById(member.getId()).orElseThrow();
+
+        //when
+        memberAgeWriteBuffer.add(member.getId(), 5);
+        memberAgeWriteBuffer.flush();
+        loaded.setUsername("renamed");
+        em.flush();
+        em.clear();
+
+        //then
+        Member found = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(found.getUsername()).isEqualTo("renamed");
+        assertThat(found.getAge()).isEqualTo(15);
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberBatchDto;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.search.UsernameIndex;
+import study.datajpa.support.InvalidRequestException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberServiceTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired UsernameIndex usernameIndex;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    void findMembersByIds() {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            ids.add(memberRepository.save(Member.createMember("member" + i, 20, teamA)).getId());
+        }
+        em.flush();
+        em.clear();
+        Collections.reverse(ids);
+        ids.add(1, -1L);
+
+        //when
+        MemberBatchDto result = memberService.findMembersByIds(ids);
+
+        //then
+        assertThat(result.getMembers()).hasSize(150);
+        assertThat(result.getMembers().get(0).getUsername()).isEqualTo("member149");
+        assertThat(result.getMembers().get(0).getTeamName()).isEqualTo("TeamA");
+        assertThat(result.getMembers().get(149).getUsername()).isEqualTo("member0");
+        assertThat(result.getMissingIds()).containsExactly(-1L);
+    }
+
+    @Test
+    void findMembersByIdsOverLimit() {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= MemberService.MAX_BATCH_IDS; i++) {
+            ids.add(i);
+        }
+
+        //when, then
+        assertThatThrownBy(() -> memberService.findMembersByIds(ids))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void searchByUsername() {
+        //given
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Member member1 = memberRepository.save(Member.createMember("searchTarget12", 20, teamA));
+        Member member2 = memberRepository.save(Member.createMember("searchTarget1", 20, teamA));
+        Member member3 = memberRepository.save(Member.createMember("searchTarget2", 20, teamA));
+        em.flush();
+        em.clear();
+        //테스트 트랜잭션은 커밋되지 않으므로 리스너 대신 직접 색인한다.
+        usernameIndex.put(member1.getId(), member1.getUsername());
+        usernameIndex.put(member2.getId(), member2.getUsername());
+        usernameIndex.put(member3.getId(), member3.getUsername());
+
+        //when
+        List<MemberDto> result = memberService.searchByUsername("searchTarget1", 10);
+
+        //then
+        usernameIndex.remove(member1.getId());
+        usernameIndex.remove(member2.getId());
+        usernameIndex.remove(member3.getId());
+        assertThat(result).extracting(MemberDto::getUsername).containsExactly("searchTarget1", "searchTarget12");
+        assertThat(result.get(0).getTeamName()).isEqualTo("TeamA");
+    }
+}
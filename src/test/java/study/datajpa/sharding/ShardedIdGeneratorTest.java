@@ -0,0 +1,39 @@
+package study.datajpa.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedIdGeneratorTest {
+
+    @Test
+    void idsFromDifferentWorkersOnSameShardDoNotCollide() {
+        //given
+        ShardedIdGenerator worker1 = new ShardedIdGenerator(5, 1);
+        ShardedIdGenerator worker2 = new ShardedIdGenerator(5, 2);
+        Set<Long> ids = new HashSet<>();
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(worker1.nextId());
+            ids.add(worker2.nextId());
+        }
+
+        //then
+        assertThat(ids).hasSize(20_000);
+        long id = worker2.nextId();
+        assertThat(id).isPositive();
+        assertThat(ShardedIdGenerator.shardOf(id)).isEqualTo(5);
+        assertThat(ShardedIdGenerator.workerOf(id)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWorkerOutOfRange() {
+        assertThatThrownBy(() -> new ShardedIdGenerator(0, ShardedIdGenerator.MAX_WORKERS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package study.datajpa.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedMemberRepositoryTest {
+
+    ShardedMemberRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:shard" + i + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        repository = new ShardedMemberRepository(dataSources, 0);
+        repository.initSchema();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (long teamId = 1; teamId <= 10; teamId++) {
+            repository.deleteByTeamId(teamId);
+        }
+        repository.close();
+    }
+
+    @Test
+    void singleTeamRouting() {
+        //given
+        ShardRouter router = new ShardRouter(3);
+        ShardedMember saved = repository.save("member1", 10, 7L);
+
+        //when
+        List<ShardedMember> team = repository.findByTeamId(7L);
+
+        //then
+        assertThat(ShardedIdGenerator.shardOf(saved.getId())).isEqualTo(router.shardForTeam(7L));
+        assertThat(repository.findById(saved.getId())).contains(saved);
+        assertThat(team).containsExactly(saved);
+    }
+
+    @Test
+    void findAllMergesShards() {
+        //given
+        for (int i = 0; i < 30; i++) {
+            repository.save("member" + i, i, i % 10 + 1);
+        }
+
+        //when
+        Page<ShardedMember> page = repository.findAll(PageRequest.of(1, 7, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getContent()).extracting(ShardedMember::getAge)
+                .containsExactly(22, 21, 20, 19, 18, 17, 16);
+    }
+
+    @Test
+    void findByNames() {
+        //given
+        repository.save("c", 10, 1L);
+        repository.save("a", 20, 2L);
+        repository.save("b", 30, 3L);
+        repository.save("d", 40, 4L);
+
+        //when
+        List<ShardedMember> result = repository.findByNames(Set.of("a", "b", "c"));
+
+        //then
+        assertThat(result).extracting(ShardedMember::getUsername).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void idsAreUniqueAcrossShards() {
+        //given
+        for (int i = 0; i < 100; i++) {
+            repository.save("member" + i, i, i % 10 + 1);
+        }
+
+        //when
+        Set<Long> ids = repository.findAll(PageRequest.of(0, 100)).getContent().stream()
+                .map(ShardedMember::getId)
+                .collect(Collectors.toSet());
+
+        //then
+        assertThat(ids).hasSize(100);
+        assertThatThrownBy(() -> repository.findAll(PageRequest.of(0, 10, Sort.by("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}